@@ -0,0 +1,64 @@
+package com.example.module04assignment.benchmarks;
+
+import com.example.module04assignment.weatherDayStore;
+import com.example.module04assignment.weatherFileLoader;
+import com.example.module04assignment.weatherMonthTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// Benchmarks for adding up the days that are already loaded into month totals, and for looking
+/// up a month the way the analytics screen does when a month button is clicked.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class aggregateBenchmark {
+    @Param({"1", "10", "100"})
+    int years;
+    @Param({"1", "8"})
+    int stations;
+
+    private final List<weatherDayStore> stores = new ArrayList<>();
+    private weatherMonthTable table;
+
+    @Setup
+    public void setUp() throws IOException {
+        for (Path file : weatherFixtures.files(years, stations))
+            stores.add(new weatherFileLoader(file).load().days());
+        table = aggregateMonths();
+    }
+    /// Adds up every day of every station into one month table.
+    @Benchmark
+    public weatherMonthTable aggregateMonths() {
+        weatherMonthTable months = new weatherMonthTable();
+        for (weatherDayStore days : stores)
+            months.addAll(days);
+        return months;
+    }
+    /// Looks up the average temperature and rainy days of all twelve months of the last year.
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double lookupMonths() {
+        double total = 0;
+        for (int month = 1; month <= 12; month++)
+            total += table.averageTemperature(2025, month) + table.rainyDays(2025, month);
+        return total;
+    }
+}
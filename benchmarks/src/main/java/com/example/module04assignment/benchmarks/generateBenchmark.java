@@ -0,0 +1,47 @@
+package com.example.module04assignment.benchmarks;
+
+import com.example.module04assignment.weatherDataGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/// Benchmark for generating synthetic weather files with the weatherDataGenerator.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class generateBenchmark {
+    @Param({"1", "10", "100"})
+    int years;
+    @Param({"1", "8"})
+    int stations;
+
+    private Path folder;
+
+    @Setup
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("weather-benchmark-generate-");
+    }
+    /// Generates every station file, the files are overwritten by every call.
+    @Benchmark
+    public long generate() throws IOException {
+        weatherDataGenerator generator = new weatherDataGenerator(2026 - years, 2025, stations, weatherFixtures.SEED);
+        generator.generate(folder);
+        return generator.rowsWritten();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.module04assignment.benchmarks;
+
+import com.example.module04assignment.weatherCsvParser;
+import com.example.module04assignment.weatherDataSet;
+import com.example.module04assignment.weatherFileLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/// Benchmarks for reading weather files: the byte parser on its own, the full parallel load
+/// with the day columns, and the load of only the month totals that the batch analyzer uses.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class parseBenchmark {
+    @Param({"1", "10", "100"})
+    int years;
+    @Param({"1", "8"})
+    int stations;
+
+    private List<Path> files;
+    private byte[] firstFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        files = weatherFixtures.files(years, stations);
+        firstFile = Files.readAllBytes(files.get(0));
+    }
+    /// Parses the bytes of one station that are already in memory, without any file access.
+    @Benchmark
+    public long parseBytes() {
+        weatherCsvParser parser = new weatherCsvParser();
+        parser.parse(ByteBuffer.wrap(firstFile), 0, firstFile.length, true,
+                (year, month, day, temperature, humidity, rained) -> {});
+        return parser.rowsParsed();
+    }
+    /// Loads every station with its day columns and month totals.
+    @Benchmark
+    public void loadFiles(Blackhole blackhole) throws IOException {
+        for (Path file : files)
+            blackhole.consume(new weatherFileLoader(file).load());
+    }
+    /// Loads only the month totals of every station.
+    @Benchmark
+    public void loadSummaries(Blackhole blackhole) throws IOException {
+        for (Path file : files)
+            blackhole.consume(weatherDataSet.loadSummary(file));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.module04assignment.benchmarks;
+
+import com.example.module04assignment.weatherAggregator;
+import com.example.module04assignment.weatherDayStore;
+import com.example.module04assignment.weatherFileLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.TimeUnit;
+
+/// Benchmarks for the weatherAggregator kernels on the days of every station added together, once
+/// with the Vector API and once with the scalar loop, the vectorized parameter switches between them.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class summarizeBenchmark {
+    @Param({"1", "10", "100"})
+    int years;
+    @Param({"1", "8"})
+    int stations;
+    @Param({"true", "false"})
+    boolean vectorized;
+
+    private final weatherDayStore days = new weatherDayStore();
+
+    @Setup
+    public void setUp() throws IOException {
+        for (Path file : weatherFixtures.files(years, stations))
+            days.addAll(new weatherFileLoader(file).load().days());
+        weatherAggregator.setVectorized(vectorized);
+    }
+    /// Adds up the temperature, humidity and rain of one month of the last year.
+    @Benchmark
+    public weatherAggregator.columnSummary summarizeMonth() {
+        return weatherAggregator.summarize(days, YearMonth.of(2025, 7));
+    }
+    /// Adds up the temperature, humidity and rain of every day.
+    @Benchmark
+    public weatherAggregator.columnSummary summarizeAll() {
+        return weatherAggregator.summarize(days, LocalDate.of(1, 1, 1), LocalDate.of(9999, 12, 31));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.module04assignment.benchmarks;
+
+import com.example.module04assignment.weatherDataGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/// This class makes the weather files the benchmarks read, using the weatherDataGenerator.
+///
+/// The files of every size are generated once into the temporary folder and reused by later
+/// runs. They always use the same seed, so every run measures exactly the same data.
+final class weatherFixtures {
+    private static final Path ROOT = Path.of(System.getProperty("java.io.tmpdir"), "weather-benchmark-fixtures");
+    private static final int LAST_YEAR = 2025;
+    static final long SEED = 42;
+
+    private weatherFixtures() {
+    }
+    /// Returns the station files with the given number of years, generating them the first time.
+    static List<Path> files(int years, int stations) throws IOException {
+        Path folder = ROOT.resolve(years + "-years-" + stations + "-stations");
+        if (!Files.isDirectory(folder)) {
+            // generate next to the real folder and move it, so a stopped run never leaves half a fixture
+            Path partial = Files.createTempDirectory(Files.createDirectories(ROOT), "partial-");
+            new weatherDataGenerator(LAST_YEAR - years + 1, LAST_YEAR, stations, SEED).generate(partial);
+            Files.move(partial, folder, StandardCopyOption.ATOMIC_MOVE);
+        }
+        try (Stream<Path> files = Files.list(folder)) {
+            return files.sorted().toList();
+        }
+    }
+}
@@ -8,13 +8,14 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.image.ImageView;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.stage.Window;
 
 import java.awt.*;
 import java.io.File;
-import java.io.FileWriter;
 import java.nio.file.Path;
 import java.io.IOException;
 import java.util.Random;
@@ -25,14 +26,14 @@ import java.util.Random;
 ///
 /// ## Class overview
 ///
-/// Allows the user to select a CSV file to display weather information
+/// Allows the user to select a CSV file, or a folder with the files of many stations, to display weather information
 /// or to create a new file based on real data. The program also lets the
 /// user regenerate the data in the file they create.
 ///
 /// ## Details about implementation
 ///
-/// The class generates data into a CSV file using weather data from New York
-/// City from this website:
+/// The class generates data into a CSV file with the weatherDataGenerator, which uses weather
+/// data from New York City from this website:
 /// <a href="https://weatherspark.com/m/23912/1/Average-Weather-in-January-in-New-York-City-New-York-United-States#Figures-Temperature">
 /// WeatherSpark </a>.
 /// to be used in the weatherRepresentation record
@@ -50,11 +51,18 @@ public class slashScreenController {
     private Label welcomeText;
     @FXML
     private Button generateButton;
+    @FXML
+    private ImageView skyImage;
 
     private Path path = Path.of("src/main/resources/cvs_file_folders/text.csv");
     private Desktop desktop = Desktop.getDesktop();
     int year = 0;
     private File file;
+    /// Sets the background image from the image cache when the splash screen is loaded.
+    @FXML
+    void initialize() {
+        skyImage.setImage(weatherImageCache.get("sky.jpg"));
+    }
     /// This method on button press lets the user select a cvs file in the internal folder
     /// of this application
     /// </a>
@@ -66,7 +74,8 @@ public class slashScreenController {
         FileChooser fileChooser = new FileChooser();
         fileChooser.setInitialDirectory(folder);
         fileChooser.setTitle("Open Resource File");
-        fileChooser.getExtensionFilters().addAll(new FileChooser.ExtensionFilter("CSV", "*.csv*"));
+        fileChooser.getExtensionFilters().addAll(new FileChooser.ExtensionFilter("CSV", "*.csv", "*.csv" + weatherGzipLoader.EXTENSION),
+                new FileChooser.ExtensionFilter("Weather binary", "*" + weatherBinaryFormat.EXTENSION));
         Window window = ((Node) event.getSource()).getScene().getWindow();
         //fileChooser.showOpenDialog(window);
         File selectedFile = fileChooser.showOpenDialog(window);
@@ -76,16 +85,42 @@ public class slashScreenController {
         }
 
     }
-    /// Method to change FXML files, it also passes the selected file to the new controller
+    /// This method on button press lets the user select a whole folder of station files, every
+    /// .csv and .wdb file in it is loaded at the same time and shown together on the next screen.
+    @FXML
+    void activateFolder(ActionEvent event) {
+        DirectoryChooser directoryChooser = new DirectoryChooser();
+        directoryChooser.setInitialDirectory(new File("src/main/resources/cvs_file_folders"));
+        directoryChooser.setTitle("Open Station Folder");
+        Window window = ((Node) event.getSource()).getScene().getWindow();
+        File selectedFolder = directoryChooser.showDialog(window);
+        if (selectedFolder != null)
+            changeController((Stage) window, selectedFolder);
+    }
+    /// Method to change FXML files, it also passes the selected file or folder to the new controller
+    /// </a>
+    /// The scene and the file are taken from the weatherPreloader if it already made them ready while
+    /// the splash screen was shown, otherwise the FXML is loaded here and the file is loaded from the start.
     public void changeController(Stage stage, File selectedFile) {
+        long selectedAt = System.nanoTime();
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("weatherAnalytics.fxml"));
-            Parent newRoot = loader.load();
-            weatherAnalyticsController controller = loader.getController();
-            controller.loadFile(selectedFile);
-            Scene scene = new Scene(newRoot, 1270, 720);
+            weatherPreloader.analyticsScene preloaded = weatherPreloader.takeScene();
+            Scene scene;
+            weatherAnalyticsController controller;
+            if (preloaded != null) {
+                scene = preloaded.scene();
+                controller = preloaded.controller();
+            } else {
+                FXMLLoader loader = new FXMLLoader(getClass().getResource("weatherAnalytics.fxml"));
+                Parent newRoot = loader.load();
+                controller = loader.getController();
+                scene = new Scene(newRoot, 1270, 720);
+            }
+            controller.measureFirstMonth(selectedAt, preloaded != null);
+            controller.loadFile(selectedFile, weatherPreloader.takeData(selectedFile.toPath()));
             stage.setScene(scene);
             stage.show();
+            weatherPreloader.remember(selectedFile.toPath());
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -103,25 +138,18 @@ public class slashScreenController {
             }
             if(file.createNewFile()) {
                 fillMonths();
-                System.out.println("File Created");
             }
         }
         catch (IOException e) {
-            System.out.println("An error occurred.");
             e.printStackTrace();
             return;
         }
     }
-    /// On button click regenerate data by emptying file and then calling fill months to fill file again
+    /// On button click regenerate data by calling fill months, which replaces the data in the file
     @FXML
     void redoFile(ActionEvent event) throws IOException {
         file = new File(path.toString());
-        FileWriter myWriter = new FileWriter(file);
-        myWriter.write("");
-        myWriter.close();
         fillMonths();
-        System.out.println("File Redo");
-
     }
     /// Enum for representing the months, it also has methods for getting the next and
     /// previous month
@@ -155,196 +183,11 @@ public class slashScreenController {
         }
         return false;
     }
-    /// This method both generates a random year between 2000-2025 and also uses the fillDays method
-    /// to fill the file with information of the days of each month.
+    /// This method generates a random year between 2000-2025 and uses the weatherDataGenerator
+    /// to fill the file with information of the days of each month of that year. The generator
+    /// records how long this took as a flight recorder event.
     private void fillMonths() throws IOException {
         year = 2000 + new Random().nextInt(26);
-        for (Months month : Months.values()) {
-            switch (month) {
-                case January -> fillDays(31, month, year, file);
-                case February -> {
-                    if(isLeapYear(year))
-                        fillDays(29, month, year, file);
-                    else
-                        fillDays(28, month, year, file);
-                }
-                case March -> fillDays(31, month, year, file);
-                case April -> fillDays(30, month, year, file);
-                case May -> fillDays(31, month, year, file);
-                case June -> fillDays(30, month, year, file);
-                case July -> fillDays(31, month, year, file);
-                case August -> fillDays(31, month, year, file);
-                case September -> fillDays(30, month, year, file);
-                case October -> fillDays(31, month, year, file);
-                case November -> fillDays(30, month, year, file);
-                case December -> fillDays(31, month, year, file);
-                default -> throw new IllegalStateException("Unexpected value: " + month);
-            }
-        }
-    }
-    /// This method uses data from:
-    /// <a href="https://weatherspark.com/m/23912/1/Average-Weather-in-January-in-New-York-City-New-York-United-States#Figures-Temperature">
-    /// WeatherSpark </a>.
-    /// to calculate random realistic values for the temperature, humidity and precipitation during each day.
-    /// </a>
-    /// it does this by using the low and high temperature average and humidity during each month and using the
-    /// rate of change through the month to model how trend of temperature and humidity changes between the
-    /// beginning and end of each month. However, it does not do this for precipitation as it generally is constant
-    /// during the beginning and end of each month and has peaks and lows that are quite near to each other.
-    /// Generates average temperature and humidity using high and low averages as bounds
-    /// for a random integer. The method also adds a rate of change over the month to both of the bounds.
-    /// The formula for the rate of change adjustment is:
-    /// <pre>
-    /// (rate of change / 3) * (days / 10)
-    /// </pre>
-    /// Since integer division is used, the rate of change is applied as follows:
-    ///0 for the first 9 days, 1 for the next 10 days, 2 for the next 10 days, 3 if there are more than 29 days
-    /// This ensures a smooth transition throughout the month for realistic data generation.
-    /// ### Example Calculation
-    ///</a>
-    /// using a lower bound of 10 and an upperbound of 21 and a rate of change of 6
-    ///
-    /// The random temperature calculation:
-    /// <pre>
-    /// int temperature = rand.nextInt(averageTempLow + ((tempchange / 3) * (i / 10)), averageTempHigh + ((tempchange / 3) * (i / 10)));
-    /// </pre>
-    ///
-    /// Substituting the values:
-    /// <pre>
-    /// int temperature = rand.nextInt(10 + ((6 / 3) * (i / 10)), 21 + ((6 / 3) * (i / 10)));
-    /// </pre>
-    ///
-    /// Where i represents the day of the month.
-    /// ### Results
-    /// At the beginning of the month: Temperature ranges from 0 to 20
-    /// At the end of a 30-day month: Temperature ranges from 16 to 26
-    /// ### More Information on Data Generation
-    /// This method helps simulate realistic temperature changes over time.
-    /// Whether or not it is raining for a given day depends if the math.random() is higher than the decimal percentage chance
-    /// for it to rain on that particular day.
-    /// </a>
-    /// These generated values of temperature, humidity and precipitation are then written to the file using a file writer
-    public void fillDays(int days, Months month, int year, File file) throws IOException {
-        int averageTempLow = 0;
-        int averageTempHigh = 0;
-        int tempchange = 0;
-        double chance_rain = 0;
-        //double chance_rain_diff = 2;
-        int averageHumidityLow = 0;
-        int averageHumidityHigh = 0;
-        int humidityChange = 0;
-        for(Months month1 : Months.values()) {
-            switch(month) {
-                case January:
-                    averageTempHigh = 41;
-                    averageTempLow = 31;
-                    tempchange = -1;
-                    chance_rain = .23;
-                    break;
-                case February:
-                    averageTempHigh = 40;
-                    averageTempLow = 28;
-                    tempchange = 5;
-                    chance_rain = .24;
-                    break;
-                case March:
-                    averageTempHigh = 46;
-                    averageTempLow = 33;
-                    tempchange = 11;
-                    chance_rain = .27;
-                    break;
-                case April:
-                    averageTempHigh = 55;
-                    averageTempLow = 41;
-                    tempchange = 11;
-                    chance_rain = .29;
-                    break;
-                case May:
-                    averageTempHigh = 67;
-                    averageTempLow = 51;
-                    tempchange = 8;
-                    chance_rain = .31;
-                    averageHumidityHigh = 12;
-                    humidityChange = 12;
-                    break;
-                case June:
-                    averageTempHigh = 75;
-                    averageTempLow = 61;
-                    tempchange = 7; // summer solstice
-                    chance_rain = .32;
-                    averageHumidityLow = 12;
-                    averageHumidityHigh = 37;
-                    humidityChange = 25;
-                    break;
-                case July:
-                    averageTempHigh = 83;
-                    averageTempLow = 69;
-                    tempchange = 1;
-                    chance_rain = .33;
-                    averageHumidityLow = 38;
-                    averageHumidityHigh = 54;
-                    humidityChange = 16;
-                    break;
-                case August:
-                    averageTempHigh = 84;
-                    averageTempLow = 71;
-                    tempchange = -4;
-                    chance_rain = .31;
-                    averageHumidityLow = 35;
-                    averageHumidityHigh = 54;
-                    humidityChange = -19;
-                    break;
-                case September:
-                    averageTempHigh = 80;
-                    averageTempLow = 67;
-                    tempchange = -9;
-                    chance_rain = .26;
-                    averageHumidityLow = 11;
-                    averageHumidityHigh = 33;
-                    humidityChange = -22;
-                    break;
-                case October:
-                    averageTempHigh = 70;
-                    averageTempLow = 57;
-                    tempchange = -10;
-                    chance_rain = .24;
-                    averageHumidityLow = 1;
-                    averageHumidityHigh = 11;
-                    humidityChange = 10;
-                    break;
-                case November:
-                    averageTempHigh = 59;
-                    averageTempLow = 47;
-                    tempchange = -9;
-                    chance_rain = .24;
-                    break;
-                case December: //winter solstice
-                    averageTempHigh = 49;
-                    averageTempLow = 38;
-                    tempchange = -7;
-                    chance_rain = .26;
-                    break;
-            }
-        }
-        //file = new File(path.toString());
-        FileWriter myWriter = new FileWriter(file, true);
-        Random rand = new Random();
-        if(!(averageTempHigh == 0))
-            averageTempHigh ++;
-        if(!(averageHumidityHigh == 0))
-            averageHumidityHigh++;
-        for(int i = 1; i <= days; i++) {
-            int rainOrNot = 0;
-            int humidity;
-            int tempture = rand.nextInt(averageTempLow + ((tempchange / 3) * (i / 10)), averageTempHigh + ((tempchange / 3) * (i / 10)));
-            if(averageHumidityLow == 0 && averageHumidityHigh == 0)
-                humidity = 0;
-            else
-                humidity = rand.nextInt(averageHumidityLow + ((humidityChange / 3) * (i / 10)), averageHumidityHigh + ((humidityChange / 3) * (i / 10)));
-            if(chance_rain > Math.random())
-                rainOrNot = 1;
-            myWriter.write(year + "-" + (month.ordinal() + 1)+ "-" + i + "," + tempture + "," + humidity + "," + rainOrNot + "\n" + "\n");
-        }
-        myWriter.close();
+        new weatherDataGenerator(year, year, 1, new Random().nextLong()).generateStation(0, file.toPath());
     }
 }
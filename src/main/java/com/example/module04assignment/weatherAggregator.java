@@ -0,0 +1,112 @@
+package com.example.module04assignment;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/// This class adds up the days of a weatherDayStore between two dates straight from its columns.
+///
+/// ## Class overview
+/// Given a store and a month or a range of dates, it returns a columnSummary with the number of
+/// days, the sum, minimum and maximum of the temperature and of the humidity, and the number of
+/// rainy days, for example:
+/// <pre>
+/// weatherAggregator.columnSummary july = weatherAggregator.summarize(days, YearMonth.of(2020, 7));
+/// </pre>
+/// The days do not have to be sorted, every day of the store is looked at once and only the ones
+/// inside the dates are added, so it also works on the days of many stations added together.
+/// The days of a loaded file are never added up this way, since their month table is made while
+/// parsing and the weatherRangeIndex answers any range with two array reads. In the application
+/// and the weatherQueryServer it only adds up the few days appended by live updates, which have no
+/// index yet.
+///
+/// ## Details about implementation
+///
+/// There are two versions of the same loop. The scalar one looks at one day at a time. The vector
+/// one, in weatherVectorKernels, uses the Vector API of jdk.incubator.vector to compare the dates
+/// and add up the columns of many days in one instruction. It is used when the module is present,
+/// which means starting java with --add-modules jdk.incubator.vector, and can be turned off with
+/// -Dweather.vector=false or with setVectorized, so the two can be compared on the same data.
+/// Since the module is only required as static, nothing of the Vector API is loaded when it is not
+/// there and the scalar loop is used instead. The application is started without the module, since
+/// a few appended days do not need it, so the vector loop is only run by summarizeBenchmark on the
+/// days of whole files and by the tests that compare it with the scalar loop.
+public class weatherAggregator {
+    private static final boolean VECTOR_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    private static volatile boolean vectorized = VECTOR_AVAILABLE
+            && Boolean.parseBoolean(System.getProperty("weather.vector", "true"));
+
+    /// record for the totals of the days between two dates, the minimums and maximums are 0 if there are no days
+    public record columnSummary(int days, long temperatureSum, int minTemperature, int maxTemperature,
+                                long humiditySum, int minHumidity, int maxHumidity, int rainyDays) {
+        static final columnSummary EMPTY = new columnSummary(0, 0, 0, 0, 0, 0, 0, 0);
+
+        public double averageTemperature() {
+            return days == 0 ? 0 : (double) temperatureSum / days;
+        }
+
+        public double averageHumidity() {
+            return days == 0 ? 0 : (double) humiditySum / days;
+        }
+    }
+
+    private weatherAggregator() {
+    }
+    /// Returns true if the Vector API kernels are used.
+    public static boolean vectorized() {
+        return vectorized;
+    }
+    /// Turns the Vector API kernels on or off, they stay off if jdk.incubator.vector is not present.
+    public static void setVectorized(boolean on) {
+        vectorized = on && VECTOR_AVAILABLE;
+    }
+    /// Returns the totals of the days of a month.
+    public static columnSummary summarize(weatherDayStore days, YearMonth month) {
+        return summarize(days, weatherDayStore.packDate(month.getYear(), month.getMonthValue(), 1),
+                weatherDayStore.packDate(month.getYear(), month.getMonthValue(), 31));
+    }
+    /// Returns the totals of the days from one date to another, both included.
+    public static columnSummary summarize(weatherDayStore days, LocalDate from, LocalDate to) {
+        return summarize(days, weatherDayStore.packDate(from.getYear(), from.getMonthValue(), from.getDayOfMonth()),
+                weatherDayStore.packDate(to.getYear(), to.getMonthValue(), to.getDayOfMonth()));
+    }
+    /// Returns the totals of the days from one packed date to another, both included.
+    public static columnSummary summarize(weatherDayStore days, int fromDate, int toDate) {
+        if (fromDate > toDate || days.size() == 0)
+            return columnSummary.EMPTY;
+        return vectorized ? weatherVectorKernels.summarize(days, fromDate, toDate) : scalar(days, fromDate, toDate);
+    }
+    /// The scalar loop, one day at a time.
+    static columnSummary scalar(weatherDayStore days, int fromDate, int toDate) {
+        int count = 0;
+        long temperatureSum = 0;
+        long humiditySum = 0;
+        int minTemperature = Integer.MAX_VALUE;
+        int maxTemperature = Integer.MIN_VALUE;
+        int minHumidity = Integer.MAX_VALUE;
+        int maxHumidity = Integer.MIN_VALUE;
+        int rainyDays = 0;
+        int[] dates = days.dateColumn();
+        short[] temperatures = days.temperatureColumn();
+        byte[] humidities = days.humidityColumn();
+        long[] rained = days.rainColumn();
+        for (int i = 0; i < days.size(); i++) {
+            int date = dates[i];
+            if (date < fromDate || date > toDate)
+                continue;
+            int temperature = temperatures[i];
+            int humidity = humidities[i];
+            count++;
+            temperatureSum += temperature;
+            minTemperature = Math.min(minTemperature, temperature);
+            maxTemperature = Math.max(maxTemperature, temperature);
+            humiditySum += humidity;
+            minHumidity = Math.min(minHumidity, humidity);
+            maxHumidity = Math.max(maxHumidity, humidity);
+            rainyDays += (int) (rained[i >>> 6] >>> i) & 1;
+        }
+        if (count == 0)
+            return columnSummary.EMPTY;
+        return new columnSummary(count, temperatureSum, minTemperature, maxTemperature,
+                humiditySum, minHumidity, maxHumidity, rainyDays);
+    }
+}
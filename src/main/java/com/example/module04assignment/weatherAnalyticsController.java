@@ -1,21 +1,29 @@
 package com.example.module04assignment;
 
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
+import javafx.scene.Scene;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.*;
-import java.nio.file.Files;
-import java.util.ArrayList;
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import javafx.scene.chart.LineChart;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.image.ImageView;
+import javafx.concurrent.Worker;
 
 /// This is the class for the controller of the fxml of the weather application.
 ///
@@ -29,12 +37,21 @@ import javafx.scene.image.ImageView;
 ///
 /// ## Details about implementation
 ///
-/// It uses the buffered reader to read the file line by line per month and stores them a list with
-/// the information of temperature, humidity and precipitation per day in a record. It then uses that
-/// to find the average temperature, the temperature status and the number of rainy days in the whole list.
-/// It reads data for the whole month and stores that information into another record which is used to
-/// display the information on screen. The user also has two buttons they can use to look at the data of the
-/// previous or next month respectively.
+/// It uses the weatherFileLoader to read the file once, on a background thread, into a weatherDayStore, which keeps the temperature,
+/// humidity and precipitation of each day in primitive arrays, and adds them up into a table with the totals
+/// of every month. A file that was opened before and has not changed is read from its weatherSummaryCache instead. It then uses that table
+/// to find the average temperature, the temperature status and the number of rainy days of a month, and the
+/// minimum, maximum, standard deviation, median, p90 and p99 of the temperature and humidity, which the table
+/// keeps in a weatherDistribution for every month while it is filled.
+/// It stores that information into another record which is used to display the information on screen,
+/// so changing the month does not read the file again. The user also has two buttons they can use to look at the data of the
+/// previous or next month respectively, and a combo box to pick the year, since the same month of different years
+/// is kept apart in the table. Below the months two date pickers show the totals of any range of dates, which
+/// are looked up in a weatherRangeIndex that is built once when the file is loaded.
+/// </a>
+/// When a folder of stations is loaded the screen shows the totals of all the stations together, a combo box
+/// switches to a single station, and a list shows every station's numbers for the current month.
+/// A second tab has a weatherTemperatureChart with the temperature and humidity of every date.
 public class weatherAnalyticsController {
     @FXML
     private Label currentMonthLabel;
@@ -44,128 +61,429 @@ public class weatherAnalyticsController {
     private Label averageTemperatureLabel;
     @FXML
     private Label tempStatusLabel;
+    @FXML
+    private Label temperatureStatsLabel;
+    @FXML
+    private Label humidityStatsLabel;
 
     @FXML
     private Button nextMonthButton;
     @FXML
     private Button previousMonthButton;
+    @FXML
+    private ComboBox<Integer> yearComboBox;
 
     @FXML
     private ImageView tempStatusImage;
+    @FXML
+    private ImageView thermometerImage;
+    @FXML
+    private ImageView rainImage;
+    @FXML
+    private CheckBox liveUpdatesCheckBox;
+    @FXML
+    private ProgressBar loadProgressBar;
+    @FXML
+    private Label loadStatusLabel;
+    @FXML
+    private Button cancelLoadButton;
+    @FXML
+    private DatePicker rangeFromPicker;
+    @FXML
+    private DatePicker rangeToPicker;
+    @FXML
+    private Label rangeLabel;
+    @FXML
+    private ComboBox<String> stationComboBox;
+    @FXML
+    private ListView<String> stationBreakdownList;
+    @FXML
+    private LineChart<Number, Number> dailyChart;
+    private weatherTemperatureChart temperatureChart;
 /// enum for the temperature status
 /// to be used in the weatherRepresentation record
 
     enum temperatureStatus {
         warm,
         cold,
-        hot,
+        hot;
+        /// gets the status of a month from its average temperature
+        static temperatureStatus of(double avgTemperature) {
+            if (avgTemperature < 50)
+                return cold;
+            else if (avgTemperature < 70)
+                return warm;
+            return hot;
+        }
     }
-    /// record for storing all of the individual weather information about each day during the month
-    private record weatherData(int temperature, int humidity, int rained) {}
     /// record for storing the summarization of all the weather for a given month
-    private record weatherRepresentation(double avgTemperature, int daysRained, temperatureStatus temperatureStatus) {}
-    //the current month that the program is displaying data about
+    private record weatherRepresentation(double avgTemperature, int daysRained, temperatureStatus temperatureStatus,
+                                         weatherDistribution temperatures, weatherDistribution humidities) {}
+    //the current year and month that the program is displaying data about
     private slashScreenController.Months currentMonth = slashScreenController.Months.January;
+    private int currentYear;
+    // the years that have data, in the same order as in the year combo box
+    private int[] years = new int[0];
     // the file that we are loading from the other controller
     private File selectedFile;
-    /// The method that loads the cvs file,
-    /// this is called by the slashScreenController when the user selects a file to load.
-    public void loadFile(File file) throws IOException {
+    // the totals of every month of the file
+    private weatherMonthTable monthTable;
+    // prefix sums over every date of the file for the date range queries, and the days that were
+    // appended while live updates are on
+    private weatherRangeIndex rangeIndex;
+    private weatherDayStore appendedDays;
+    // the stations of a folder and the totals of all of them together, the list is empty for a single file
+    private List<weatherStationSet.station> stations = List.of();
+    private weatherMonthTable combinedTable;
+    // how many bytes of the file are already in the day store, and the watcher reading the rest
+    private long loadedBytes;
+    private weatherFileWatcher watcher;
+    // the files are loaded on virtual threads so the JavaFX thread never waits for a large file
+    private static final ExecutorService LOADER = Executors.newVirtualThreadPerTaskExecutor();
+    private weatherLoadTask loadTask;
+    // when the user picked the file, until its first month is on screen, and how it was loaded
+    private long selectedAt;
+    private boolean preloadedScene;
+    private boolean preloadedData;
+    /// Sets the images that do not change from the image cache, so they are not decoded again
+    /// every time this screen is opened.
+    @FXML
+    void initialize() {
+        thermometerImage.setImage(weatherImageCache.get("pngimg.com - thermometer_PNG51.png"));
+        rainImage.setImage(weatherImageCache.get("7038403.png"));
+        temperatureChart = new weatherTemperatureChart(dailyChart);
+    }
+    /// The method that loads the cvs file, or every station file of a folder,
+    /// this is called by the slashScreenController when the user selects a file or a folder to load.
+    /// The file is read only once, in the background, every month is then looked up from the month table.
+    /// </a>
+    /// A .csv file is read with the weatherFileLoader class, which maps the file into memory and parses
+    /// parts of it on every core at the same time. A .wdb file already has the totals of every month in
+    /// its index, so only its records are decoded. Either way the loading runs in a weatherLoadTask on a
+    /// virtual thread, and the months are shown with the totals read so far while the file is loading.
+    /// A folder is loaded with weatherStationSet, which loads all the stations at the same time.
+    public void loadFile(File file) {
+        loadFile(file, null);
+    }
+    /// Loads a file the same way, but with a task the weatherPreloader already started for it while
+    /// the splash screen was shown. If that task is already done the months are shown right away.
+    public void loadFile(File file, weatherLoadTask preloaded) {
         this.selectedFile = file;
-        configureGUI(loadMonth());
+        if (loadTask != null)
+            loadTask.cancel();
+        liveUpdatesCheckBox.setDisable(true);
+        stationComboBox.setDisable(true);
+        stations = List.of();
+        preloadedData = preloaded != null;
+        weatherLoadTask task = preloaded != null ? preloaded : new weatherLoadTask(file.toPath());
+        loadProgressBar.progressProperty().bind(task.progressProperty());
+        loadStatusLabel.textProperty().bind(task.messageProperty());
+        cancelLoadButton.setDisable(false);
+        task.valueProperty().addListener((observable, oldData, data) -> {
+            if (data != null && task == loadTask) {
+                monthTable = data.months();
+                updateYears();
+                configureGUI(loadMonth());
+            }
+        });
+        task.setOnSucceeded(event -> finishLoad(task.getValue(), task.rangeIndex(), task.stations()));
+        task.setOnFailed(event -> stopLoad("Could not load the file: " + task.getException().getMessage()));
+        task.setOnCancelled(event -> stopLoad("Loading was cancelled, showing the part of the file that was read"));
+        loadTask = task;
+        if (preloaded == null)
+            LOADER.submit(task);
+        else if (task.getState() == Worker.State.SUCCEEDED)
+            finishLoad(task.getValue(), task.rangeIndex(), task.stations());
     }
-    /// This method creates a list full of the individual parts of weather data for each day for the current month.
-    ///</a>
-    /// It uses the buffered reader class to do this and uses .filter to filter out all the data for the other
-    /// months and whitespace. It also calls a method filterDayByDay() to store all the humidity/temperature/rain
-    /// in the weatherRepresentation record
-    ///
-    private List<weatherData> loadWeatherData() throws IOException {
-        BufferedReader reader = Files.newBufferedReader(selectedFile.toPath());
-            return reader.lines().filter(line -> !line.isBlank())// filters out white space
-                    .filter(line -> {
-                        String[] parts = line.split("-");
-                        int lineMonth = Integer.parseInt(parts[1]);
-                        return lineMonth == currentMonth.ordinal() + 1;
-                    })
-                    .map(this::filterDayByDay)
-                    .collect(Collectors.toList());
-    }
-    /// this method filters out the humidity/temperature/rain data for each day and stores it in a weatherData
-    /// record.
-    private weatherData filterDayByDay(String line) {
-        String[] data = line.split(",");
-        int temperature = Integer.parseInt(data[1]);
-        int humidity = Integer.parseInt(data[2]);
-        int rained = Integer.parseInt(data[3]);
-        return new weatherData(temperature, humidity, rained);
-    }
-    /// This method analyzes the data in the list of weatherData and
-    private weatherRepresentation loadMonth() throws IOException {
-        int monthNum = currentMonth.ordinal() + 1;
-        List<weatherData> selectedMonth = new ArrayList<>(loadWeatherData());
-        int numRained = 0;
-        double totalTemp = 0;
-        for (weatherAnalyticsController.weatherData weatherData : selectedMonth) {
-            if (weatherData.rained == 1) {
-                numRained++;
+    /// Starts measuring the time until the first month of the next file is drawn, from when the
+    /// user picked it. The time is added to weatherMetrics and written as a flight recorder event.
+    public void measureFirstMonth(long selectedAt, boolean preloadedScene) {
+        this.selectedAt = selectedAt;
+        this.preloadedScene = preloadedScene;
+    }
+    /// Stops the measurement after the next layout, which is right before the month is drawn.
+    private void firstMonthShown() {
+        long start = selectedAt;
+        selectedAt = 0;
+        Scene scene = currentMonthLabel.getScene();
+        Runnable record = () -> {
+            long latency = System.nanoTime() - start;
+            weatherMetrics.time(weatherMetrics.FIRST_MONTH_TIME, latency);
+            weatherMetrics.firstMonthEvent event = new weatherMetrics.firstMonthEvent();
+            if (event.shouldCommit()) {
+                event.path = selectedFile.toString();
+                event.latency = latency;
+                event.preloadedScene = preloadedScene;
+                event.preloadedData = preloadedData;
+                event.commit();
+            }
+        };
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                record.run();
+            }
+        });
+    }
+    /// Keeps the totals and range index of the file once the load task is done, and turns live updates
+    /// back on if they were on before the file was loaded. The days themselves are not kept, since they
+    /// may have come from the summary cache without being parsed.
+    private void finishLoad(weatherDataSet data, weatherRangeIndex rangeIndex, List<weatherStationSet.station> stations) {
+        this.appendedDays = new weatherDayStore();
+        this.monthTable = data.months();
+        this.combinedTable = data.months();
+        this.rangeIndex = rangeIndex;
+        this.stations = stations;
+        this.loadedBytes = data.bytesRead();
+        cancelLoadButton.setDisable(true);
+        // only single uncompressed .csv files grow while they are being written to
+        String name = selectedFile.getName();
+        liveUpdatesCheckBox.setDisable(!stations.isEmpty() || name.endsWith(weatherBinaryFormat.EXTENSION)
+                || name.endsWith(weatherGzipLoader.EXTENSION));
+        stationComboBox.getItems().setAll("All stations");
+        for (weatherStationSet.station station : stations)
+            stationComboBox.getItems().add(station.name());
+        stationComboBox.getSelectionModel().selectFirst();
+        stationComboBox.setDisable(stations.isEmpty());
+        updateYears();
+        configureGUI(loadMonth());
+        temperatureChart.show(rangeIndex);
+        if (rangeIndex.firstDate() != null) {
+            rangeFromPicker.setValue(rangeIndex.firstDate());
+            rangeToPicker.setValue(rangeIndex.lastDate());
+            showRange(null);
+        }
+        if (liveUpdatesCheckBox.isSelected() && !liveUpdatesCheckBox.isDisabled()) {
+            try {
+                startWatching();
+            } catch (IOException e) {
+                e.printStackTrace();
             }
-            totalTemp += weatherData.temperature;
         }
-        System.out.println("the total temp is " + totalTemp);
-        double avgTemp = totalTemp / selectedMonth.size();
-        System.out.println("the average temp is " + avgTemp);
-        temperatureStatus status = temperatureStatus.hot;
-        if(avgTemp < 50)
-            status = temperatureStatus.cold;
-        else if(avgTemp < 70) {
-            status = temperatureStatus.warm;
+    }
+    /// Shows why the load task stopped before it was done.
+    private void stopLoad(String message) {
+        loadStatusLabel.textProperty().unbind();
+        loadStatusLabel.setText(message);
+        cancelLoadButton.setDisable(true);
+    }
+    /// Method that cancels the file that is loading on button click, the months that were
+    /// already read stay on screen.
+    @FXML
+    void cancelLoading(ActionEvent event) {
+        if (loadTask != null)
+            loadTask.cancel();
+    }
+    /// Fills the year combo box with the years of the month table, if the current year has no data
+    /// the first year of the file is shown instead.
+    private void updateYears() {
+        int[] tableYears = monthTable.years();
+        if (!Arrays.equals(tableYears, years)) {
+            years = tableYears;
+            yearComboBox.getItems().setAll(Arrays.stream(years).boxed().toList());
+        }
+        if (years.length > 0 && Arrays.binarySearch(years, currentYear) < 0)
+            currentYear = years[0];
+        yearComboBox.setValue(currentYear);
+    }
+    /// Returns the year before or after the current one that has data, it wraps around at the first
+    /// and last year the same way the months do.
+    private int stepYear(int direction) {
+        int index = Arrays.binarySearch(years, currentYear);
+        if (index < 0)
+            return currentYear;
+        return years[(index + direction + years.length) % years.length];
+    }
+    /// This method looks up the totals of the current year and month in the month table and
+    /// turns them into a weatherRepresentation record. The totals are recorded as a month lookup
+    /// event of the flight recorder, which costs nothing when no recording is running.
+    private weatherRepresentation loadMonth() {
+        int monthNum = currentMonth.ordinal() + 1;
+        int numRained = monthTable.rainyDays(currentYear, monthNum);
+        double avgTemp = monthTable.averageTemperature(currentYear, monthNum);
+        temperatureStatus status = temperatureStatus.of(avgTemp);
+        weatherMetrics.add(weatherMetrics.MONTH_LOOKUPS, 1);
+        weatherMetrics.monthLookupEvent event = new weatherMetrics.monthLookupEvent();
+        if (event.shouldCommit()) {
+            event.year = currentYear;
+            event.month = monthNum;
+            event.days = monthTable.dayCount(currentYear, monthNum);
+            event.temperatureSum = monthTable.temperatureSum(currentYear, monthNum);
+            event.averageTemperature = avgTemp;
+            event.rainyDays = numRained;
+            event.commit();
         }
-        System.out.println("Month: " + monthNum);
-        System.out.println("Amount of days: " + selectedMonth.size());
-        return new weatherRepresentation(avgTemp, numRained, status);
+        return new weatherRepresentation(avgTemp, numRained, status,
+                monthTable.temperatureStats(currentYear, monthNum), monthTable.humidityStats(currentYear, monthNum));
     }
     /// Method that handles displaying the data in the weatherRepresentation record for
     /// the current month into GUI elements on the screen Like average temperature and
     /// number of rainy days and what status the temperature is considered to have.
     /// </a>
-    /// It also displays different images depending on that status, as well as changing button
+    /// It also displays different images depending on that status, which come from the weatherImageCache, as well as changing button
     /// text and the label that displays the current month to have the right text.
     private void configureGUI(weatherRepresentation data) {
         String monthName = currentMonth.name();
-        currentMonthLabel.setText("Here is the data for: " + monthName);
+        currentMonthLabel.setText("Here is the data for: " + monthName + " " + currentYear);
         //int monthNum = currentMonth.ordinal() + 1;
-        switch (data.temperatureStatus) {
-            case hot -> {
-                tempStatusImage.setImage(new Image(Objects.requireNonNull(getClass().getResource("/images/hot.png")).toExternalForm()));
-                tempStatusLabel.setText("The temperature is considered: " + temperatureStatus.hot);
-            }
-            case cold -> {
-                tempStatusImage.setImage(new Image(Objects.requireNonNull(getClass().getResource("/images/cold.jpg")).toExternalForm()));
-                tempStatusLabel.setText("The temperature is considered: " + temperatureStatus.cold);
-            }
-            case warm -> {
-                tempStatusImage.setImage(new Image(Objects.requireNonNull(getClass().getResource("/images/warm.png")).toExternalForm()));
-                tempStatusLabel.setText("The temperature is considered: " + temperatureStatus.warm);
-            }
-        }
+        // the images were already decoded when the application started, see weatherImageCache
+        tempStatusImage.setImage(weatherImageCache.statusImage(data.temperatureStatus));
+        tempStatusLabel.setText("The temperature is considered: " + data.temperatureStatus);
         nextMonthButton.setText("Next Month: " + currentMonth.next());
         previousMonthButton.setText("Previous Month: " + currentMonth.previous());
         averageTemperatureLabel.setText("Average temperature is: " + String.format("%.3f", data.avgTemperature) + " °F");
         numberOfRainyDaysLabel.setText("The number of rainy days is: " + data.daysRained);
+        temperatureStatsLabel.setText("Temperature " + statsText(data.temperatures));
+        humidityStatsLabel.setText("Humidity " + statsText(data.humidities));
+        showStationBreakdown();
+        if (selectedAt != 0)
+            firstMonthShown();
+    }
+    /// Builds the text of the minimum, maximum, standard deviation and percentiles of a distribution.
+    private static String statsText(weatherDistribution stats) {
+        if (stats.count() == 0)
+            return "spread: no data";
+        return String.format("min %d, max %d, std dev %.2f, median %d, p90 %d, p99 %d",
+                stats.min(), stats.max(), stats.standardDeviation(), stats.median(), stats.percentile(0.9), stats.percentile(0.99));
+    }
+    /// Lists the average temperature and rainy days of the current month for every station of a
+    /// folder, the totals come from the month table each station already has in memory.
+    private void showStationBreakdown() {
+        stationBreakdownList.getItems().clear();
+        int monthNum = currentMonth.ordinal() + 1;
+        for (weatherStationSet.station station : stations) {
+            weatherMonthTable months = station.data().months();
+            if (months.dayCount(currentYear, monthNum) == 0)
+                stationBreakdownList.getItems().add(station.name() + ": no data");
+            else
+                stationBreakdownList.getItems().add(String.format("%s: %.1f °F, %d rainy", station.name(),
+                        months.averageTemperature(currentYear, monthNum), months.rainyDays(currentYear, monthNum)));
+        }
+    }
+    /// Method to switch between the combined totals of every station and the totals of a single
+    /// station of the folder, nothing is read again since every station is already in memory.
+    @FXML
+    void selectStation(ActionEvent event) {
+        int index = stationComboBox.getSelectionModel().getSelectedIndex();
+        if (combinedTable == null || index < 0)
+            return;
+        monthTable = index == 0 ? combinedTable : stations.get(index - 1).data().months();
+        updateYears();
+        configureGUI(loadMonth());
+    }
+    /// Method that turns the live updates on or off when the check box is clicked.
+    /// </a>
+    /// While live updates are on a weatherFileWatcher reads the rows that are appended to the file
+    /// and adds them to the day store and month table, without reading the rest of the file again.
+    @FXML
+    void toggleLiveUpdates(ActionEvent event) throws IOException {
+        if (liveUpdatesCheckBox.isSelected())
+            startWatching();
+        else
+            stopWatching();
+    }
+
+    private void startWatching() throws IOException {
+        watcher = new weatherFileWatcher(selectedFile.toPath(), loadedBytes, new weatherFileWatcher.appendListener() {
+            @Override
+            public void appended(weatherDayStore appended) {
+                Platform.runLater(() -> addAppendedDays(appended));
+            }
+            @Override
+            public void replaced() {
+                Platform.runLater(() -> reloadFile());
+            }
+        });
+        watcher.start();
+    }
+
+    private void stopWatching() throws IOException {
+        if (watcher == null)
+            return;
+        loadedBytes = watcher.offset();
+        watcher.close();
+        watcher = null;
+    }
+    /// Adds the days that were appended to the file to the totals, the screen is only updated
+    /// if one of the new days belongs to the month that is being shown.
+    private void addAppendedDays(weatherDayStore appended) {
+        appendedDays.addAll(appended);
+        monthTable.addAll(appended);
+        updateYears();
+        int monthNum = currentMonth.ordinal() + 1;
+        for (int i = 0; i < appended.size(); i++) {
+            if (appended.year(i) == currentYear && appended.month(i) == monthNum) {
+                configureGUI(loadMonth());
+                return;
+            }
+        }
+    }
+    /// Method that shows the totals of the dates picked in the two date pickers on button click.
+    /// </a>
+    /// The totals come from the prefix sums of the weatherRangeIndex, so any range takes the same
+    /// time to show, from a single day to the whole file. Days appended by live updates are added to it
+    /// with the weatherAggregator, which scans them straight from their columns.
+    @FXML
+    void showRange(ActionEvent event) {
+        LocalDate from = rangeFromPicker.getValue();
+        LocalDate to = rangeToPicker.getValue();
+        if (rangeIndex == null || from == null || to == null)
+            return;
+        weatherRangeIndex.rangeSummary range = rangeIndex.summary(from, to);
+        if (appendedDays.size() > 0) {
+            weatherAggregator.columnSummary appended = weatherAggregator.summarize(appendedDays, from, to);
+            range = range.plus(new weatherRangeIndex.rangeSummary(from, to, appended.days(),
+                    appended.averageTemperature(), appended.averageHumidity(), appended.rainyDays()));
+        }
+        if (range.days() == 0) {
+            rangeLabel.setText("No data between " + from + " and " + to);
+            return;
+        }
+        rangeLabel.setText(String.format("%,d days, average temperature %.3f °F, average humidity %.1f, %,d rainy days",
+                range.days(), range.averageTemperature(), range.averageHumidity(), range.rainyDays()));
+    }
+    /// Loads the whole file again after it was replaced, the new file is watched again once it is loaded.
+    private void reloadFile() {
+        try {
+            stopWatching();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        loadFile(selectedFile);
     }
     /// Method to switch the current month to the next on button click,
-    /// also loads the GUI for the new month.
+    /// also loads the GUI for the new month. After December it moves on to the next year.
     @FXML
-    void goNextMonth(ActionEvent event) throws IOException {
+    void goNextMonth(ActionEvent event) {
         currentMonth = currentMonth.next();
-        configureGUI(loadMonth());
+        if (currentMonth == slashScreenController.Months.January)
+            currentYear = stepYear(1);
+        showCurrentMonth();
     }
     /// Method to switch the current month to the previous on button click,
-    /// also loads the GUI for the new month.
+    /// also loads the GUI for the new month. Before January it moves back to the previous year.
     @FXML
-    void goPreviousMonth(ActionEvent event) throws IOException {
+    void goPreviousMonth(ActionEvent event) {
         currentMonth = currentMonth.previous();
+        if (currentMonth == slashScreenController.Months.December)
+            currentYear = stepYear(-1);
+        showCurrentMonth();
+    }
+    /// Method to switch to the year picked in the year combo box, the month stays the same.
+    @FXML
+    void selectYear(ActionEvent event) {
+        Integer year = yearComboBox.getValue();
+        if (year == null || year == currentYear)
+            return;
+        currentYear = year;
+        showCurrentMonth();
+    }
+
+    private void showCurrentMonth() {
+        if (monthTable == null)
+            return;
+        yearComboBox.setValue(currentYear);
         configureGUI(loadMonth());
     }
 
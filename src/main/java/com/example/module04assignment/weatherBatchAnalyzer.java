@@ -0,0 +1,172 @@
+package com.example.module04assignment;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/// This class summarizes many weather files from the command line, without opening a window.
+///
+/// ## Class overview
+/// It is given a folder or a glob pattern, and for every .csv, .csv.gz or .wdb file it finds it writes the
+/// same monthly summary the analytics screen shows: the number of days, the average temperature,
+/// the temperature status and the number of rainy days. The summaries are written as CSV or JSON
+/// to a file or to the standard output, for example:
+/// <pre>
+/// weatherBatchAnalyzer "stations/*.csv" --format json --out summaries.json --threads 8
+/// </pre>
+///
+/// ## Details about implementation
+///
+/// The files are summarized at the same time on a fixed number of threads, and the queue of
+/// waiting files is bounded so the files are handed out as threads become free instead of all at
+/// once. Every .csv file is parsed only on the thread that summarizes it, so the threads option
+/// bounds the parsing too, while a .csv.gz file also uses the two stage threads of its
+/// weatherGzipLoader. Only the month totals of each file are loaded, not its days, and the summary
+/// of a file is written as soon as it is done, so the memory used does not grow with the number of files.
+/// Files that can not be read are reported on the error output and the others are still summarized.
+public class weatherBatchAnalyzer {
+    private final Writer out;
+    private final boolean json;
+    private boolean firstJsonEntry = true;
+
+    private weatherBatchAnalyzer(Writer out, boolean json) {
+        this.out = out;
+        this.json = json;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.err.println("Usage: weatherBatchAnalyzer <folder or glob> [--format csv|json] [--out file] [--threads n]");
+            System.exit(2);
+        }
+        String format = "csv";
+        Path outFile = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--format" -> format = args[i + 1];
+                case "--out" -> outFile = Path.of(args[i + 1]);
+                case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        List<Path> files = findFiles(args[0]);
+        Writer writer = outFile == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(outFile);
+        int failed;
+        try (writer) {
+            failed = new weatherBatchAnalyzer(writer, format.equals("json")).run(files, threads);
+        }
+        System.exit(failed == 0 ? 0 : 1);
+    }
+    /// Finds the weather files of a folder, a single file, or the files matching a glob pattern like
+    /// stations/*.csv, where the search starts from the folder before the first wildcard. A folder or
+    /// file that exists is taken as it is, even if its name has a character like [ that a glob uses.
+    static List<Path> findFiles(String pattern) throws IOException {
+        if (Files.isDirectory(Path.of(pattern)))
+            return weatherStationSet.listFolder(Path.of(pattern));
+        int wildcard = -1;
+        for (char c : "*?[{".toCharArray()) {
+            int index = pattern.indexOf(c);
+            if (index >= 0 && (wildcard < 0 || index < wildcard))
+                wildcard = index;
+        }
+        if (wildcard < 0 && Files.isRegularFile(Path.of(pattern)))
+            return List.of(Path.of(pattern));
+        Path base = Path.of(pattern);
+        PathMatcher matcher = null;
+        if (wildcard >= 0) {
+            int slash = Math.max(pattern.lastIndexOf('/', wildcard), pattern.lastIndexOf('\\', wildcard));
+            base = Path.of(slash < 0 ? "." : pattern.substring(0, slash + 1));
+            matcher = base.getFileSystem().getPathMatcher("glob:" + pattern.substring(slash + 1));
+        }
+        Path folder = base;
+        PathMatcher glob = matcher;
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> paths = glob == null ? Files.list(folder) : Files.walk(folder)) {
+            paths.filter(Files::isRegularFile)
+                    .filter(file -> glob == null || glob.matches(folder.relativize(file)))
+                    .filter(weatherStationSet::isWeatherFile)
+                    .sorted()
+                    .forEach(files::add);
+        }
+        return files;
+    }
+    /// Summarizes every file on a bounded pool of threads and returns the number of files that failed.
+    private int run(List<Path> files, int threads) throws IOException, InterruptedException {
+        AtomicInteger failed = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+        if (!json)
+            out.write("file,year,month,days,averageTemperature,status,rainyDays\n");
+        else
+            out.write("[\n");
+        for (Path file : files) {
+            executor.execute(() -> {
+                try {
+                    writeSummary(file, weatherDataSet.loadSummary(file).months());
+                } catch (IOException | RuntimeException e) {
+                    failed.incrementAndGet();
+                    System.err.println("Could not summarize " + file + ": " + e);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        if (json)
+            out.write("\n]\n");
+        return failed.get();
+    }
+    /// Writes the summary of every month of every year of a file, the months of one file are always
+    /// written together.
+    private synchronized void writeSummary(Path file, weatherMonthTable months) throws IOException {
+        for (int year : months.years()) {
+            for (slashScreenController.Months month : slashScreenController.Months.values()) {
+                writeMonth(file, months, year, month);
+            }
+        }
+        out.flush();
+    }
+
+    /// Writes the summary of a single month, months without any days are skipped.
+    private void writeMonth(Path file, weatherMonthTable months, int year, slashScreenController.Months month) throws IOException {
+        int monthNum = month.ordinal() + 1;
+        int days = months.dayCount(year, monthNum);
+        if (days == 0)
+            return;
+        double avgTemp = months.averageTemperature(year, monthNum);
+        weatherAnalyticsController.temperatureStatus status = weatherAnalyticsController.temperatureStatus.of(avgTemp);
+        if (json) {
+            out.write(firstJsonEntry ? "  " : ",\n  ");
+            firstJsonEntry = false;
+            out.write(String.format(Locale.ROOT,
+                    "{\"file\": \"%s\", \"year\": %d, \"month\": \"%s\", \"days\": %d, \"averageTemperature\": %.3f, \"status\": \"%s\", \"rainyDays\": %d}",
+                    file.toString().replace("\\", "\\\\").replace("\"", "\\\""), year, month, days, avgTemp, status,
+                    months.rainyDays(year, monthNum)));
+        } else {
+            out.write(String.format(Locale.ROOT, "%s,%d,%s,%d,%.3f,%s,%d\n",
+                    csvField(file.toString()), year, month, days, avgTemp, status, months.rainyDays(year, monthNum)));
+        }
+    }
+    /// Returns a field of a CSV row, the field is put in quotes with its quotes doubled if it has a
+    /// comma, a quote or a new line in it, the same way spreadsheets read it.
+    private static String csvField(String field) {
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0)
+            return field;
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+}
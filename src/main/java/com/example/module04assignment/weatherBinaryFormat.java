@@ -0,0 +1,216 @@
+package com.example.module04assignment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/// This class reads and writes the compact binary .wdb weather format.
+///
+/// ## Class overview
+/// A .wdb file holds the same days as a weather .csv file, but in fixed-width binary records
+/// that are sorted by date, with an index at the front that tells where the records of every
+/// year and month start and what their totals are. A month can be summarized from the index
+/// alone, or its records can be read directly, without looking at the rest of the file.
+/// The main method converts an existing .csv file into a .wdb file.
+///
+/// ## Details about implementation
+///
+/// The layout of the file is:
+/// <pre>
+/// header:  int magic "WDB1", short version, short unused, int number of index entries
+/// index:   one 32 byte entry per year and month that has days, sorted by date:
+///          short year, byte month, byte unused, int first record, int record count,
+///          int rainy days, long temperature sum, long humidity sum
+/// records: one 4 byte record per day:
+///          byte day of the month with the rain flag in the highest bit,
+///          short temperature, byte humidity
+/// </pre>
+/// The year and month of a record are not stored in the record itself because they are already
+/// in its index entry, this is what lets a day fit in 4 bytes. The file is memory mapped when it is
+/// read, and the index is kept in an array with one slot per month between the first and last year
+/// so finding a month is a single array access.
+public class weatherBinaryFormat {
+    public static final String EXTENSION = ".wdb";
+
+    private static final int MAGIC = 0x57444231; // "WDB1"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int ENTRY_SIZE = 32;
+    private static final int RECORD_SIZE = 4;
+    private static final int RAIN_FLAG = 0x80;
+
+    /// record for one entry of the index, the records of the month and their totals
+    public record monthEntry(int year, int month, int firstRecord, int recordCount, int rainyDays,
+                             long temperatureSum, long humiditySum) {}
+
+    private final MappedByteBuffer buffer;
+    private final monthEntry[] entries;
+    private final int recordsOffset;
+    private final int recordCount;
+    // index entries by (year - firstYear) * 12 + month - 1, null for months without days
+    private final monthEntry[] slots;
+    private final int firstYear;
+
+    private weatherBinaryFormat(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION)
+            throw new IOException("Not a weather binary file");
+        int entryCount = buffer.getInt(8);
+        entries = new monthEntry[entryCount];
+        int total = 0;
+        for (int i = 0; i < entryCount; i++) {
+            int pos = HEADER_SIZE + i * ENTRY_SIZE;
+            entries[i] = new monthEntry(buffer.getShort(pos), buffer.get(pos + 2), buffer.getInt(pos + 4),
+                    buffer.getInt(pos + 8), buffer.getInt(pos + 12), buffer.getLong(pos + 16), buffer.getLong(pos + 24));
+            total += entries[i].recordCount();
+        }
+        recordsOffset = HEADER_SIZE + entryCount * ENTRY_SIZE;
+        recordCount = total;
+        if (buffer.limit() < recordsOffset + (long) recordCount * RECORD_SIZE)
+            throw new IOException("Weather binary file is truncated");
+        firstYear = entryCount == 0 ? 0 : entries[0].year();
+        int lastYear = entryCount == 0 ? -1 : entries[entryCount - 1].year();
+        slots = new monthEntry[(lastYear - firstYear + 1) * 12];
+        for (monthEntry entry : entries)
+            slots[(entry.year() - firstYear) * 12 + entry.month() - 1] = entry;
+    }
+    /// Opens a .wdb file by mapping it into memory and reading its index.
+    public static weatherBinaryFormat open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Weather binary file is larger than 2 GB");
+            return new weatherBinaryFormat(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+    /// Opens a .wdb file and turns it into a weatherDataSet. The records are decoded and added up
+    /// into a month table, since the index has the totals but not the distributions of the months.
+    public static weatherDataSet load(Path path) throws IOException {
+        weatherBinaryFormat file = open(path);
+        weatherDayStore days = file.readAll();
+        // the totals of the index have no distributions, so the table is added up from the days
+        weatherMonthTable table = new weatherMonthTable();
+        table.addAll(days);
+        return new weatherDataSet(days, table, 0, file.buffer.limit());
+    }
+    /// Returns the index entry of a year and month, or null if the file has no days for it.
+    public monthEntry summary(int year, int month) {
+        int slot = (year - firstYear) * 12 + month - 1;
+        if (slot < 0 || slot >= slots.length)
+            return null;
+        return slots[slot];
+    }
+    /// Returns every entry of the index in the order of the file.
+    public monthEntry[] entries() {
+        return entries.clone();
+    }
+    /// Copies the totals of every entry of the index into a month table.
+    public weatherMonthTable monthTable() {
+        weatherMonthTable table = new weatherMonthTable();
+        for (monthEntry entry : entries)
+            table.addTotals(entry.year(), entry.month(), entry.temperatureSum(), entry.recordCount(), entry.rainyDays());
+        return table;
+    }
+    /// Reads only the records of one year and month.
+    public weatherDayStore readMonth(int year, int month) {
+        monthEntry entry = summary(year, month);
+        weatherDayStore days = new weatherDayStore(entry == null ? 0 : entry.recordCount());
+        if (entry != null)
+            readRecords(entry, days);
+        return days;
+    }
+    /// Reads every record of the file.
+    public weatherDayStore readAll() {
+        weatherDayStore days = new weatherDayStore(recordCount);
+        for (monthEntry entry : entries)
+            readRecords(entry, days);
+        return days;
+    }
+
+    private void readRecords(monthEntry entry, weatherDayStore days) {
+        int pos = recordsOffset + entry.firstRecord() * RECORD_SIZE;
+        for (int i = 0; i < entry.recordCount(); i++, pos += RECORD_SIZE) {
+            int dayAndRain = buffer.get(pos) & 0xFF;
+            days.add(entry.year(), entry.month(), dayAndRain & ~RAIN_FLAG, buffer.getShort(pos + 1),
+                    buffer.get(pos + 3), (dayAndRain & RAIN_FLAG) == 0 ? 0 : 1);
+        }
+    }
+    /// Writes the days of a store to a .wdb file, sorted by date.
+    /// </a>
+    /// The days are sorted by packing the date and the position of each day into one long and
+    /// sorting those, so the store itself is not changed. The index entries are then filled in
+    /// while the records are written, one month at a time.
+    public static void write(weatherDayStore days, Path path) throws IOException {
+        int size = days.size();
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++)
+            order[i] = (long) days.date(i) << 32 | i;
+        Arrays.sort(order);
+
+        int entryCount = 0;
+        int previousMonth = -1;
+        for (long key : order) {
+            int yearMonth = (int) (key >>> 32) >>> 5;
+            if (yearMonth != previousMonth) {
+                entryCount++;
+                previousMonth = yearMonth;
+            }
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + entryCount * ENTRY_SIZE);
+        ByteBuffer records = ByteBuffer.allocate(size * RECORD_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(entryCount);
+        int first = 0;
+        while (first < size) {
+            int index = (int) order[first];
+            int year = days.year(index);
+            int month = days.month(index);
+            int last = first;
+            int rainyDays = 0;
+            long temperatureSum = 0;
+            long humiditySum = 0;
+            while (last < size && days.year((int) order[last]) == year && days.month((int) order[last]) == month) {
+                int day = (int) order[last];
+                int rained = days.rained(day);
+                records.put((byte) (days.day(day) | (rained == 1 ? RAIN_FLAG : 0)))
+                        .putShort((short) days.temperature(day))
+                        .put((byte) days.humidity(day));
+                rainyDays += rained;
+                temperatureSum += days.temperature(day);
+                humiditySum += days.humidity(day);
+                last++;
+            }
+            header.putShort((short) year).put((byte) month).put((byte) 0).putInt(first).putInt(last - first)
+                    .putInt(rainyDays).putLong(temperatureSum).putLong(humiditySum);
+            first = last;
+        }
+        header.flip();
+        records.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining())
+                channel.write(header);
+            while (records.hasRemaining())
+                channel.write(records);
+        }
+    }
+    /// Converts a weather .csv file to a .wdb file.
+    public static void convert(Path csv, Path binary) throws IOException {
+        write(new weatherFileLoader(csv).load().days(), binary);
+    }
+    /// Converts the .csv file given as the first argument, the .wdb file is written next to it
+    /// unless a second argument with its path is given.
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: weatherBinaryFormat <file.csv> [file.wdb]");
+            return;
+        }
+        Path csv = Path.of(args[0]);
+        Path binary = args.length > 1 ? Path.of(args[1])
+                : csv.resolveSibling(csv.getFileName().toString().replaceFirst("\\.csv$", "") + EXTENSION);
+        convert(csv, binary);
+        System.out.println("Wrote " + binary);
+    }
+}
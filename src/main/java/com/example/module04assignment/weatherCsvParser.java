@@ -0,0 +1,171 @@
+package com.example.module04assignment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/// This class reads the rows of the weather .csv files straight from bytes.
+///
+/// ## Class overview
+/// Every row of a weather file has the layout
+/// <pre>
+/// yyyy-M-d,temperature,humidity,rain
+/// </pre>
+/// The parser turns each row into plain ints and hands them to a rowSink, without creating
+/// a String, an array or a record for the row. Blank lines are skipped, and lines that do not
+/// match the layout are counted as malformed instead of stopping the whole file.
+///
+/// ## Details about implementation
+///
+/// The parser works on a ByteBuffer so the same code can read a byte array filled from a stream
+/// or any other buffer of bytes. It looks for the end of each line and then reads the numbers
+/// digit by digit, checking every separator on the way. A parser keeps its own counters and its
+/// position in the line, so one parser should only be used by one thread at a time.
+public class weatherCsvParser {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // returned by readNumber when the field is not a valid number
+    private static final int INVALID = Integer.MIN_VALUE;
+    // separator used for the last field of a row, which ends at the end of the line
+    private static final byte END_OF_LINE = '\n';
+
+    /// Receives the fields of every valid row the parser reads.
+    @FunctionalInterface
+    public interface rowSink {
+        void accept(int year, int month, int day, int temperature, int humidity, int rained);
+    }
+
+    private long rowsParsed;
+    private long malformedLines;
+    private long bytesRead;
+    // the position readNumber continues from
+    private int cursor;
+
+    /// Parses every line of a stream until it ends.
+    /// </a>
+    /// The bytes are read into one buffer that is reused for the whole stream. A line that is cut
+    /// in half by the end of the buffer is moved to the front and finished with the next read.
+    public void parse(InputStream in, rowSink sink) throws IOException {
+        byte[] bytes = new byte[BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int filled = 0;
+        while (true) {
+            int read = in.read(bytes, filled, bytes.length - filled);
+            if (read == -1) {
+                parse(buffer, 0, filled, true, sink);
+                return;
+            }
+            filled += read;
+            bytesRead += read;
+            int consumed = parse(buffer, 0, filled, false, sink);
+            if (consumed == 0 && filled == bytes.length) {
+                // a single line does not fit in the buffer, so the buffer has to grow
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                buffer = ByteBuffer.wrap(bytes);
+                continue;
+            }
+            System.arraycopy(bytes, consumed, bytes, 0, filled - consumed);
+            filled -= consumed;
+        }
+    }
+    /// Parses every complete line between from and to in the buffer.
+    /// </a>
+    /// If endOfInput is true the last line does not need to end with a new line. The method returns
+    /// the position right after the last line it parsed, the bytes after it belong to a line that
+    /// has not been fully read yet.
+    public int parse(ByteBuffer buffer, int from, int to, boolean endOfInput, rowSink sink) {
+        int lineStart = from;
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == '\n') {
+                parseLine(buffer, lineStart, i, true, sink);
+                lineStart = i + 1;
+            }
+        }
+        if (endOfInput && lineStart < to) {
+            parseLine(buffer, lineStart, to, true, sink);
+            lineStart = to;
+        }
+        return lineStart;
+    }
+    /// Parses the last line of a file that has no new line after it, and returns true if it was used.
+    /// </a>
+    /// A program that appends rows to the file may still be writing that line, so it is only used if
+    /// it is a whole valid row or blank. Otherwise it is not counted as malformed and not given to the
+    /// sink, and its bytes can be read again once the rest of the row and its new line are written.
+    public boolean parseLastLine(ByteBuffer buffer, int from, int to, rowSink sink) {
+        return parseLine(buffer, from, to, false, sink);
+    }
+    /// Parses a single line without its new line character, the line is skipped if it is blank
+    /// and counted as malformed if one of its fields is missing, not a number, or too big to be
+    /// stored in a weatherDayStore. A year outside of 1 to 9999 is malformed as well, since it
+    /// would overflow the packed date and make the month table as long as the years in between.
+    /// Returns false if the line was malformed, it is only counted if countMalformed is true.
+    private boolean parseLine(ByteBuffer buffer, int start, int end, boolean countMalformed, rowSink sink) {
+        while (start < end && isWhitespace(buffer.get(start)))
+            start++;
+        while (end > start && isWhitespace(buffer.get(end - 1)))
+            end--;
+        if (start == end)
+            return true;
+        cursor = start;
+        int year = readNumber(buffer, end, (byte) '-', false);
+        int month = year == INVALID ? INVALID : readNumber(buffer, end, (byte) '-', false);
+        int day = month == INVALID ? INVALID : readNumber(buffer, end, (byte) ',', false);
+        int temperature = day == INVALID ? INVALID : readNumber(buffer, end, (byte) ',', true);
+        int humidity = temperature == INVALID ? INVALID : readNumber(buffer, end, (byte) ',', true);
+        int rained = humidity == INVALID ? INVALID : readNumber(buffer, end, END_OF_LINE, false);
+        if (rained == INVALID || year < weatherDayStore.MIN_YEAR || year > weatherDayStore.MAX_YEAR
+                || month < 1 || month > 12 || day < 1 || day > 31 || rained > 1
+                || !weatherDayStore.fits(temperature, humidity)) {
+            if (countMalformed)
+                malformedLines++;
+            return false;
+        }
+        rowsParsed++;
+        sink.accept(year, month, day, temperature, humidity, rained);
+        return true;
+    }
+    /// Reads a number starting at the cursor and ending right before the separator, then moves the
+    /// cursor past the separator. Returns INVALID if there are no digits, if a character is not a
+    /// digit, or if the number is too long to be a real value.
+    private int readNumber(ByteBuffer buffer, int end, byte separator, boolean signed) {
+        int pos = cursor;
+        boolean negative = false;
+        if (signed && pos < end && buffer.get(pos) == '-') {
+            negative = true;
+            pos++;
+        }
+        int value = 0;
+        int digits = 0;
+        while (pos < end) {
+            byte b = buffer.get(pos);
+            if (b == separator)
+                break;
+            if (b < '0' || b > '9' || digits == 9)
+                return INVALID;
+            value = value * 10 + (b - '0');
+            digits++;
+            pos++;
+        }
+        if (digits == 0 || (separator != END_OF_LINE && pos == end))
+            return INVALID;
+        cursor = pos + 1;
+        return negative ? -value : value;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+    /// Returns the number of valid rows that were given to the sink.
+    public long rowsParsed() {
+        return rowsParsed;
+    }
+    /// Returns the number of lines that were not blank but could not be read as a row.
+    public long malformedLines() {
+        return malformedLines;
+    }
+    /// Returns the number of bytes read from streams by this parser.
+    public long bytesRead() {
+        return bytesRead;
+    }
+}
@@ -10,11 +10,15 @@ import java.io.IOException;
 public class weatherDataAnalyzer extends Application {
     @Override
     public void start(Stage stage) throws IOException {
+        // the status images are decoded in the background while the splash screen is shown
+        weatherImageCache.preloadStatusImages();
         FXMLLoader fxmlLoader = new FXMLLoader(weatherDataAnalyzer.class.getResource("splashScreen.fxml"));
         Scene scene = new Scene(fxmlLoader.load(), 320, 240);
         stage.setTitle("Weather Data Analyzer");
         stage.setScene(scene);
         stage.show();
+        // the analytics screen and the last file are made ready while the user looks at the splash screen
+        weatherPreloader.start();
     }
     public static void main(String[] args) {
         launch();
@@ -0,0 +1,257 @@
+package com.example.module04assignment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/// This class generates weather .csv files with random but realistic data.
+///
+/// ## Class overview
+/// The generator writes one file per station for every day between a first and a last year. The
+/// data is based on the weather of New York City from this website:
+/// <a href="https://weatherspark.com/m/23912/1/Average-Weather-in-January-in-New-York-City-New-York-United-States#Figures-Temperature">
+/// WeatherSpark </a>.
+/// Every station and every month gets its own SplittableRandom, split from the seed in a fixed
+/// order, so the same year range, station count and seed always give the same files, no matter
+/// how many cores did the work. The main method runs the generator from the command line.
+///
+/// ## Details about implementation
+///
+/// The months of a station are split into blocks, and every block is a fork join task that
+/// writes its rows as bytes straight into a large direct ByteBuffer. The buffers are kept in a
+/// pool and reused, and only a few blocks are started ahead of the one being written, so the
+/// memory used stays the same however many years are generated. The blocks are written to the
+/// file with a FileChannel in the order of the dates.
+public class weatherDataGenerator {
+    // size of every pooled buffer, and the most bytes a row or a month can take
+    private static final int BUFFER_SIZE = 4 << 20;
+    private static final int MAX_ROW_BYTES = 32;
+    private static final int MONTH_BYTES = 31 * MAX_ROW_BYTES;
+
+    /// record for the averages of a month that the random values are based on
+    private record monthClimate(int tempLow, int tempHigh, int tempChange, double rainChance,
+                                int humidityLow, int humidityHigh, int humidityChange) {}
+
+    // the averages of every month, in the order of slashScreenController.Months
+    private static final monthClimate[] CLIMATE = {
+            new monthClimate(31, 41, -1, .23, 0, 0, 0),
+            new monthClimate(28, 40, 5, .24, 0, 0, 0),
+            new monthClimate(33, 46, 11, .27, 0, 0, 0),
+            new monthClimate(41, 55, 11, .29, 0, 0, 0),
+            new monthClimate(51, 67, 8, .31, 0, 12, 12),
+            new monthClimate(61, 75, 7, .32, 12, 37, 25), // summer solstice
+            new monthClimate(69, 83, 1, .33, 38, 54, 16),
+            new monthClimate(71, 84, -4, .31, 35, 54, -19),
+            new monthClimate(67, 80, -9, .26, 11, 33, -22),
+            new monthClimate(57, 70, -10, .24, 1, 11, 10),
+            new monthClimate(47, 59, -9, .24, 0, 0, 0),
+            new monthClimate(38, 49, -7, .26, 0, 0, 0), // winter solstice
+    };
+
+    private final int firstYear;
+    private final int lastYear;
+    private final int stations;
+    private final long seed;
+    private final int parallelism = ForkJoinPool.getCommonPoolParallelism();
+    private final ConcurrentLinkedQueue<ByteBuffer> bufferPool = new ConcurrentLinkedQueue<>();
+    private long rowsWritten;
+    private long bytesWritten;
+
+    public weatherDataGenerator(int firstYear, int lastYear, int stations, long seed) {
+        if (lastYear < firstYear || stations < 1)
+            throw new IllegalArgumentException("Needs at least one year and one station");
+        this.firstYear = firstYear;
+        this.lastYear = lastYear;
+        this.stations = stations;
+        this.seed = seed;
+    }
+    /// Generates one file for every station in the folder, named station-1.csv, station-2.csv and so on.
+    public void generate(Path folder) throws IOException {
+        Files.createDirectories(folder);
+        for (int station = 0; station < stations; station++)
+            generateStation(station, folder.resolve("station-" + (station + 1) + ".csv"));
+    }
+    /// Generates the file of a single station, replacing the file if it already exists. The rows
+    /// and the time it took are added to weatherMetrics and recorded as a flight recorder event.
+    public void generateStation(int station, Path file) throws IOException {
+        weatherMetrics.generateEvent event = new weatherMetrics.generateEvent();
+        event.begin();
+        long start = System.nanoTime();
+        long rowsBefore = rowsWritten;
+        long bytesBefore = bytesWritten;
+        // every station gets its own split of the seed, in the order of the stations
+        SplittableRandom seedRandom = new SplittableRandom(seed);
+        SplittableRandom stationRandom = seedRandom.split();
+        for (int i = 0; i < station; i++)
+            stationRandom = seedRandom.split();
+        int totalMonths = (lastYear - firstYear + 1) * 12;
+        int window = parallelism * 2;
+        int monthsPerBlock = Math.max(1, Math.min(BUFFER_SIZE / MONTH_BYTES, totalMonths / window));
+        ArrayDeque<blockTask> started = new ArrayDeque<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int first = 0; first < totalMonths; first += monthsPerBlock) {
+                if (started.size() == window)
+                    write(started.poll(), channel);
+                // every month is split on this thread, in order, so the numbers do not depend on
+                // how the months were put into blocks or on which task runs first
+                SplittableRandom[] monthRandoms = new SplittableRandom[Math.min(monthsPerBlock, totalMonths - first)];
+                for (int i = 0; i < monthRandoms.length; i++)
+                    monthRandoms[i] = stationRandom.split();
+                blockTask task = new blockTask(first, monthRandoms);
+                task.fork();
+                started.add(task);
+            }
+            while (!started.isEmpty())
+                write(started.poll(), channel);
+        }
+        long nanos = System.nanoTime() - start;
+        weatherMetrics.time(weatherMetrics.GENERATE_TIME, nanos);
+        weatherMetrics.add(weatherMetrics.ROWS_GENERATED, rowsWritten - rowsBefore);
+        event.path = file.toString();
+        event.rows = rowsWritten - rowsBefore;
+        event.bytes = bytesWritten - bytesBefore;
+        event.rowsPerSecond = event.rows / Math.max(nanos / 1e9, 1e-9);
+        event.commit();
+    }
+    /// Waits for a block and writes its buffer to the file, then puts the buffer back in the pool.
+    private void write(blockTask task, FileChannel channel) throws IOException {
+        ByteBuffer buffer = task.join();
+        buffer.flip();
+        bytesWritten += buffer.remaining();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        rowsWritten += task.rows;
+        bufferPool.offer(buffer);
+    }
+    /// Returns the number of rows written by this generator.
+    public long rowsWritten() {
+        return rowsWritten;
+    }
+    /// Returns the number of bytes written by this generator.
+    public long bytesWritten() {
+        return bytesWritten;
+    }
+
+    /// Fork join task that writes the rows of a few months in a row into a pooled buffer.
+    private class blockTask extends RecursiveTask<ByteBuffer> {
+        private final int firstMonth;
+        private final SplittableRandom[] monthRandoms;
+        private int rows;
+
+        blockTask(int firstMonth, SplittableRandom[] monthRandoms) {
+            this.firstMonth = firstMonth;
+            this.monthRandoms = monthRandoms;
+        }
+
+        @Override
+        protected ByteBuffer compute() {
+            ByteBuffer buffer = bufferPool.poll();
+            if (buffer == null)
+                buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.clear();
+            for (int i = 0; i < monthRandoms.length; i++) {
+                int month = firstMonth + i;
+                rows += fillMonth(firstYear + month / 12, month % 12 + 1, monthRandoms[i], buffer);
+            }
+            return buffer;
+        }
+    }
+    /// This method uses the averages of each month to calculate random realistic values for the
+    /// temperature, humidity and precipitation during each day, and writes them to the buffer.
+    /// </a>
+    /// It does this by using the low and high temperature average and humidity during each month and using the
+    /// rate of change through the month to model how trend of temperature and humidity changes between the
+    /// beginning and end of each month. However, it does not do this for precipitation as it generally is constant
+    /// during the beginning and end of each month and has peaks and lows that are quite near to each other.
+    /// The formula for the rate of change adjustment is:
+    /// <pre>
+    /// (rate of change / 3) * (days / 10)
+    /// </pre>
+    /// Since integer division is used, the rate of change is applied as follows:
+    ///0 for the first 9 days, 1 for the next 10 days, 2 for the next 10 days, 3 if there are more than 29 days
+    /// This ensures a smooth transition throughout the month for realistic data generation.
+    /// ### Example Calculation
+    /// using a lower bound of 10 and an upperbound of 21 and a rate of change of 6
+    /// <pre>
+    /// int temperature = random.nextInt(10 + ((6 / 3) * (i / 10)), 21 + ((6 / 3) * (i / 10)));
+    /// </pre>
+    /// Where i represents the day of the month.
+    /// Whether or not it is raining for a given day depends on whether a random double is lower than the
+    /// decimal percentage chance for it to rain during that month.
+    /// Returns the number of rows that were written.
+    private static int fillMonth(int year, int month, SplittableRandom random, ByteBuffer buffer) {
+        monthClimate climate = CLIMATE[month - 1];
+        int tempHigh = climate.tempHigh() == 0 ? 0 : climate.tempHigh() + 1;
+        int humidityHigh = climate.humidityHigh() == 0 ? 0 : climate.humidityHigh() + 1;
+        int days = YearMonth.of(year, month).lengthOfMonth();
+        for (int i = 1; i <= days; i++) {
+            int tempShift = (climate.tempChange() / 3) * (i / 10);
+            int humidityShift = (climate.humidityChange() / 3) * (i / 10);
+            int temperature = random.nextInt(climate.tempLow() + tempShift, tempHigh + tempShift);
+            int humidity = 0;
+            if (climate.humidityLow() != 0 || humidityHigh != 0)
+                humidity = random.nextInt(climate.humidityLow() + humidityShift, humidityHigh + humidityShift);
+            int rained = climate.rainChance() > random.nextDouble() ? 1 : 0;
+            putNumber(buffer, year);
+            buffer.put((byte) '-');
+            putNumber(buffer, month);
+            buffer.put((byte) '-');
+            putNumber(buffer, i);
+            buffer.put((byte) ',');
+            putNumber(buffer, temperature);
+            buffer.put((byte) ',');
+            putNumber(buffer, humidity);
+            buffer.put((byte) ',');
+            putNumber(buffer, rained);
+            buffer.put((byte) '\n');
+        }
+        return days;
+    }
+    /// Writes the digits of a number into the buffer without making a String.
+    private static void putNumber(ByteBuffer buffer, int value) {
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        if (value >= 10)
+            putNumber(buffer, value / 10);
+        buffer.put((byte) ('0' + value % 10));
+    }
+    /// Generates files from the command line, for example:
+    /// <pre>
+    /// weatherDataGenerator --from 2000 --to 2025 --stations 4 --seed 42 --out fixtures
+    /// </pre>
+    public static void main(String[] args) throws IOException {
+        int from = 2000;
+        int to = 2025;
+        int stations = 1;
+        long seed = System.nanoTime();
+        Path out = Path.of("src/main/resources/cvs_file_folders/generated");
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--from" -> from = Integer.parseInt(args[i + 1]);
+                case "--to" -> to = Integer.parseInt(args[i + 1]);
+                case "--stations" -> stations = Integer.parseInt(args[i + 1]);
+                case "--seed" -> seed = Long.parseLong(args[i + 1]);
+                case "--out" -> out = Path.of(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        long start = System.nanoTime();
+        weatherDataGenerator generator = new weatherDataGenerator(from, to, stations, seed);
+        generator.generate(out);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Wrote %,d rows (%.1f MB) to %s in %.2f s, seed %d%n",
+                generator.rowsWritten(), generator.bytesWritten() / 1e6, out, seconds, seed);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.module04assignment;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/// record for everything that is known about a loaded weather file, the days themselves in
+/// columns and the totals of every month that were computed from them. bytesRead is the
+/// amount of the file that was loaded, which is where a weatherFileWatcher continues from.
+public record weatherDataSet(weatherDayStore days, weatherMonthTable months, long malformedLines, long bytesRead) {
+    /// Loads a weather file of any of the supported formats, .wdb files are read through
+    /// weatherBinaryFormat, .gz files are decompressed while they are parsed by weatherGzipLoader
+    /// and everything else is parsed as a .csv file.
+    public static weatherDataSet load(Path path) throws IOException {
+        return load(path, null);
+    }
+    /// Loads a weather file and reports the progress of .csv files to the listener, .wdb files
+    /// only need their records decoded so they are loaded in one step. Every load is timed in
+    /// weatherMetrics and recorded as a flight recorder event.
+    public static weatherDataSet load(Path path, weatherFileLoader.progressListener listener) throws IOException {
+        weatherMetrics.fileLoadEvent event = new weatherMetrics.fileLoadEvent();
+        event.begin();
+        long start = System.nanoTime();
+        String name = path.getFileName().toString();
+        weatherDataSet data;
+        if (name.endsWith(weatherBinaryFormat.EXTENSION))
+            data = weatherBinaryFormat.load(path);
+        else if (name.endsWith(weatherGzipLoader.EXTENSION))
+            data = new weatherGzipLoader(path).load(listener);
+        else
+            data = new weatherFileLoader(path).load(listener);
+        weatherMetrics.time(weatherMetrics.LOAD_TIME, System.nanoTime() - start);
+        event.path = path.toString();
+        event.bytesRead = data.bytesRead();
+        event.rowsParsed = data.days().size();
+        event.rowsRejected = data.malformedLines();
+        event.commit();
+        return data;
+    }
+    /// Loads only the month totals of a weather file, the day store of the result is empty.
+    /// This keeps the memory used small when many files are summarized. A .csv file is parsed on
+    /// the calling thread only, so the number of threads summarizing files is the number of files
+    /// parsed at the same time.
+    public static weatherDataSet loadSummary(Path path) throws IOException {
+        if (path.getFileName().toString().endsWith(weatherBinaryFormat.EXTENSION)) {
+            weatherBinaryFormat file = weatherBinaryFormat.open(path);
+            return new weatherDataSet(new weatherDayStore(0), file.monthTable(), 0, 0);
+        }
+        if (path.getFileName().toString().endsWith(weatherGzipLoader.EXTENSION))
+            return new weatherGzipLoader(path, false).load();
+        return new weatherFileLoader(path, false, false).load();
+    }
+    /// Returns the same data set with an empty day store, for keeping the totals of a file after its
+    /// range index is built without keeping its days in memory.
+    public weatherDataSet withoutDays() {
+        return new weatherDataSet(new weatherDayStore(0), months, malformedLines, bytesRead);
+    }
+}
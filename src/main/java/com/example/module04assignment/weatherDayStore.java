@@ -0,0 +1,228 @@
+package com.example.module04assignment;
+
+import java.util.Arrays;
+import java.util.List;
+
+/// This class stores the weather of every day of a file in columns of primitives.
+///
+/// ## Class overview
+/// Instead of keeping one object for every day, the store keeps one array per field: the packed
+/// date in an int[], the temperature in a short[], the humidity in a byte[] and whether it rained
+/// as one bit in a long[]. Day i of the file is found at index i of every column.
+///
+/// ## Details about implementation
+///
+/// A day takes 7 bytes and 1 bit in the store (4 bytes for the date, 2 for the temperature, 1 for
+/// the humidity and 1 bit for the rain) instead of the 40 or so bytes of a record and its reference
+/// in a list. That is for a store of exactly its size, a store that is still growing can have up
+/// to twice as much room as it has days. The date is packed as
+/// <pre>
+/// year << 9 | month << 5 | day
+/// </pre>
+/// so sorting the packed dates also sorts the days by date. Whether day i rained is bit i % 64 of
+/// word i / 64 of the rain column, like a BitSet, but the words can be read directly by the
+/// weatherAggregator kernels. The arrays grow by doubling while the file is parsed, the same way
+/// an ArrayList does, but never past MAX_SIZE. The stores that the chunks of a file are parsed into are put together with
+/// join, which copies them one column at a time and lets go of each column of the chunks right
+/// after it is copied, so the days are never in memory twice.
+public class weatherDayStore {
+    /// the years a date can have, a bigger year would not fit in the packed date or in a .wdb file
+    public static final int MIN_YEAR = 1;
+    public static final int MAX_YEAR = 9999;
+    /// the most days a store can hold, which is the largest array Java can allocate
+    public static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int[] dates;
+    private short[] temperatures;
+    private byte[] humidities;
+    private long[] rained;
+    private int size;
+
+    public weatherDayStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public weatherDayStore(int capacity) {
+        capacity = Math.max(capacity, 1);
+        dates = new int[capacity];
+        temperatures = new short[capacity];
+        humidities = new byte[capacity];
+        rained = new long[words(capacity)];
+    }
+
+    private weatherDayStore(int[] dates, short[] temperatures, byte[] humidities, long[] rained) {
+        this.dates = dates;
+        this.temperatures = temperatures;
+        this.humidities = humidities;
+        this.rained = rained;
+        this.size = dates.length;
+    }
+    /// Packs a date into a single int, see the class overview for the layout.
+    public static int packDate(int year, int month, int day) {
+        return year << 9 | month << 5 | day;
+    }
+    /// Returns true if a temperature and humidity fit in the columns of the store.
+    public static boolean fits(int temperature, int humidity) {
+        return temperature >= Short.MIN_VALUE && temperature <= Short.MAX_VALUE
+                && humidity >= Byte.MIN_VALUE && humidity <= Byte.MAX_VALUE;
+    }
+    /// Adds a day to the end of the store.
+    public void add(int year, int month, int day, int temperature, int humidity, int rained) {
+        if (size == dates.length)
+            grow(newCapacity(size, size + 1L));
+        dates[size] = packDate(year, month, day);
+        temperatures[size] = (short) temperature;
+        humidities[size] = (byte) humidity;
+        if (rained == 1)
+            this.rained[size >>> 6] |= 1L << size;
+        size++;
+    }
+    /// Adds every day of another store to the end of this store.
+    public void addAll(weatherDayStore other) {
+        if (size + other.size > dates.length)
+            grow(newCapacity(size, (long) size + other.size));
+        System.arraycopy(other.dates, 0, dates, size, other.size);
+        System.arraycopy(other.temperatures, 0, temperatures, size, other.size);
+        System.arraycopy(other.humidities, 0, humidities, size, other.size);
+        copyRain(other.rained, other.size, rained, size);
+        size += other.size;
+    }
+    /// Puts stores together in their order into one store of exactly their total size. The stores
+    /// are empty afterwards, since each of their columns is dropped as soon as it is copied, so
+    /// besides the days of the stores only one column of the joined store is new at any time.
+    /// Throws an IllegalArgumentException if the stores have more than MAX_SIZE days together.
+    static weatherDayStore join(List<weatherDayStore> parts) {
+        long total = 0;
+        for (weatherDayStore part : parts)
+            total += part.size;
+        if (total > MAX_SIZE)
+            throw new IllegalArgumentException(total + " days do not fit in one store, the most is " + MAX_SIZE);
+        int size = (int) total;
+        int at = 0;
+        int[] dates = new int[size];
+        for (weatherDayStore part : parts) {
+            System.arraycopy(part.dates, 0, dates, at, part.size);
+            at += part.size;
+            part.dates = new int[1];
+        }
+        at = 0;
+        short[] temperatures = new short[size];
+        for (weatherDayStore part : parts) {
+            System.arraycopy(part.temperatures, 0, temperatures, at, part.size);
+            at += part.size;
+            part.temperatures = new short[1];
+        }
+        at = 0;
+        byte[] humidities = new byte[size];
+        for (weatherDayStore part : parts) {
+            System.arraycopy(part.humidities, 0, humidities, at, part.size);
+            at += part.size;
+            part.humidities = new byte[1];
+        }
+        at = 0;
+        long[] rained = new long[words(size)];
+        for (weatherDayStore part : parts) {
+            copyRain(part.rained, part.size, rained, at);
+            at += part.size;
+            part.rained = new long[1];
+            part.size = 0;
+        }
+        return new weatherDayStore(dates, temperatures, humidities, rained);
+    }
+    /// Adds the rain bits of count days to a rain column starting at day at. The words are shifted
+    /// to where the first day goes, and the bits after at in the column must still be 0.
+    private static void copyRain(long[] from, int count, long[] to, int at) {
+        int base = at >>> 6;
+        int shift = at & 63;
+        for (int i = 0; i < words(count); i++) {
+            long word = from[i];
+            to[base + i] |= word << shift;
+            if (shift != 0 && word >>> (64 - shift) != 0)
+                to[base + i + 1] |= word >>> (64 - shift);
+        }
+    }
+
+    /// Returns the capacity a store of size days grows to so that needed days fit, twice the size
+    /// or at least needed, but never more than MAX_SIZE. Throws an IllegalArgumentException if
+    /// needed is more than MAX_SIZE.
+    static int newCapacity(int size, long needed) {
+        if (needed > MAX_SIZE)
+            throw new IllegalArgumentException(needed + " days do not fit in one store, the most is " + MAX_SIZE);
+        return (int) Math.max(needed, Math.min((long) size * 2, MAX_SIZE));
+    }
+
+    private void grow(int capacity) {
+        dates = Arrays.copyOf(dates, capacity);
+        temperatures = Arrays.copyOf(temperatures, capacity);
+        humidities = Arrays.copyOf(humidities, capacity);
+        rained = Arrays.copyOf(rained, words(capacity));
+    }
+
+    private static int words(int days) {
+        return (days + 63) >>> 6;
+    }
+    /// Returns the number of days in the store.
+    public int size() {
+        return size;
+    }
+    /// Returns the packed date of a day.
+    public int date(int index) {
+        return dates[index];
+    }
+
+    public int year(int index) {
+        return dates[index] >>> 9;
+    }
+
+    public int month(int index) {
+        return (dates[index] >>> 5) & 0xF;
+    }
+
+    public int day(int index) {
+        return dates[index] & 0x1F;
+    }
+
+    public int temperature(int index) {
+        return temperatures[index];
+    }
+
+    public int humidity(int index) {
+        return humidities[index];
+    }
+    /// Returns 1 if it rained during the day and 0 if it did not, the same way it is written in the file.
+    public int rained(int index) {
+        return (int) (rained[index >>> 6] >>> index) & 1;
+    }
+    /// Returns the number of rainy days between from (inclusive) and to (exclusive).
+    public int rainyDays(int from, int to) {
+        if (from >= to)
+            return 0;
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> (63 - ((to - 1) & 63));
+        if (first == last)
+            return Long.bitCount(rained[first] & firstMask & lastMask);
+        int count = Long.bitCount(rained[first] & firstMask) + Long.bitCount(rained[last] & lastMask);
+        for (int i = first + 1; i < last; i++)
+            count += Long.bitCount(rained[i]);
+        return count;
+    }
+    // the columns themselves for the weatherAggregator kernels, they can be longer than size()
+    int[] dateColumn() {
+        return dates;
+    }
+
+    short[] temperatureColumn() {
+        return temperatures;
+    }
+
+    byte[] humidityColumn() {
+        return humidities;
+    }
+
+    long[] rainColumn() {
+        return rained;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.module04assignment;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/// This class keeps the spread of the values of one month, like the temperatures of every day of a July.
+///
+/// ## Class overview
+/// Values are added one at a time, and at any point the count, minimum, maximum, mean, standard
+/// deviation and any percentile (the median, p90, p99) can be asked for. The values are never kept,
+/// so a distribution takes the same memory for a month of one station or of a hundred stations.
+///
+/// ## Details about implementation
+///
+/// The mean and the standard deviation use Welford's method, which updates the mean and the sum of
+/// the squared differences from it with every value
+/// <pre>
+/// delta = value - mean
+/// mean += delta / count
+/// m2 += delta * (value - mean)
+/// </pre>
+/// so it does not lose precision the way adding up the squares does. The percentiles come from a
+/// histogram with one bucket for every whole number between low and high, since the temperature and
+/// humidity are small whole numbers. Values outside of that range are counted in the first or last
+/// bucket, so only their percentiles are rounded, the minimum and maximum are always exact.
+/// Two distributions are merged with the parallel version of Welford's method by Chan et al.
+public class weatherDistribution {
+    private final int low;
+    private final int[] histogram;
+    private long count;
+    private double mean;
+    private double m2;
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+
+    /// Creates an empty distribution with a histogram bucket for every value from low to high.
+    public weatherDistribution(int low, int high) {
+        this.low = low;
+        this.histogram = new int[high - low + 1];
+    }
+    /// Adds one value.
+    public void add(int value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        histogram[Math.clamp(value - low, 0, histogram.length - 1)]++;
+    }
+    /// Adds every value of another distribution with the same range to this one.
+    public void merge(weatherDistribution other) {
+        if (other.count == 0)
+            return;
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        for (int i = 0; i < histogram.length; i++)
+            histogram[i] += other.histogram[i];
+    }
+    /// Returns the number of values that were added.
+    public long count() {
+        return count;
+    }
+    /// Returns the smallest value, or 0 if there are no values.
+    public int min() {
+        return count == 0 ? 0 : min;
+    }
+    /// Returns the largest value, or 0 if there are no values.
+    public int max() {
+        return count == 0 ? 0 : max;
+    }
+    /// Returns the mean of the values, or NaN if there are no values.
+    public double mean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+    /// Returns the population standard deviation of the values, or NaN if there are no values.
+    public double standardDeviation() {
+        return count == 0 ? Double.NaN : Math.sqrt(m2 / count);
+    }
+    /// Returns the value below which the given fraction of the values are, for example 0.9 for p90.
+    /// It uses the nearest rank, so the result is always one of the values. Returns 0 if there are no values.
+    public int percentile(double fraction) {
+        if (count == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= rank)
+                return Math.clamp(low + i, min, max);
+        }
+        return max;
+    }
+    /// Returns the median of the values.
+    public int median() {
+        return percentile(0.5);
+    }
+    /// Writes the state of the distribution, so weatherSummaryCache can read it back with read.
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(low);
+        out.writeInt(histogram.length);
+        out.writeLong(count);
+        out.writeDouble(mean);
+        out.writeDouble(m2);
+        out.writeInt(min);
+        out.writeInt(max);
+        for (int bucket : histogram)
+            out.writeInt(bucket);
+    }
+    /// Reads a distribution that was written with write.
+    static weatherDistribution read(ByteBuffer in) {
+        int low = in.getInt();
+        weatherDistribution distribution = new weatherDistribution(low, low + in.getInt() - 1);
+        distribution.count = in.getLong();
+        distribution.mean = in.getDouble();
+        distribution.m2 = in.getDouble();
+        distribution.min = in.getInt();
+        distribution.max = in.getInt();
+        in.asIntBuffer().get(distribution.histogram);
+        in.position(in.position() + distribution.histogram.length * Integer.BYTES);
+        return distribution;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.module04assignment;
+
+/// This class picks the few points of a long series that keep its shape, so a chart can draw
+/// many years of days with one point per pixel.
+///
+/// ## Class overview
+/// It uses the Largest Triangle Three Buckets algorithm by Sveinn Steinarsson. Given the x and y
+/// values of a series and how many points to keep, it returns the indexes of the points to draw.
+/// The first and the last point are always kept, and the peaks and dips of the series are kept
+/// as well, unlike taking every n-th point or the average of every bucket.
+///
+/// ## Details about implementation
+///
+/// The points between the first and the last are split into buckets of the same size, and one point
+/// is picked from every bucket. The point picked is the one that makes the largest triangle with
+/// the point picked in the bucket before it and the average of the bucket after it. It works on
+/// plain double arrays and only looks at every point once, so it takes the same time for a series
+/// no matter how many points end up on screen.
+public class weatherDownsampler {
+    private weatherDownsampler() {
+    }
+    /// Returns the indexes of the points to keep out of the first count points of x and y, with at
+    /// most threshold points. If there are not more points than the threshold, every index is returned.
+    public static int[] largestTriangleThreeBuckets(double[] x, double[] y, int count, int threshold) {
+        if (threshold >= count || threshold < 3) {
+            int[] all = new int[count];
+            for (int i = 0; i < count; i++)
+                all[i] = i;
+            return all;
+        }
+        int[] sampled = new int[threshold];
+        // the size of every bucket, the first and last point each have their own bucket
+        double every = (double) (count - 2) / (threshold - 2);
+        int picked = 0;
+        sampled[0] = 0;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // the average of the next bucket is the third corner of the triangles
+            int nextStart = (int) ((bucket + 1) * every) + 1;
+            int nextEnd = Math.min((int) ((bucket + 2) * every) + 1, count);
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += x[i];
+                averageY += y[i];
+            }
+            averageX /= nextEnd - nextStart;
+            averageY /= nextEnd - nextStart;
+
+            int start = (int) (bucket * every) + 1;
+            int end = (int) ((bucket + 1) * every) + 1;
+            double maxArea = -1;
+            int maxIndex = start;
+            for (int i = start; i < end; i++) {
+                // twice the area of the triangle, which is enough to compare them
+                double area = Math.abs((x[picked] - averageX) * (y[i] - y[picked])
+                        - (x[picked] - x[i]) * (averageY - y[picked]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+            sampled[bucket + 1] = maxIndex;
+            picked = maxIndex;
+        }
+        sampled[threshold - 1] = count - 1;
+        return sampled;
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.module04assignment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RecursiveTask;
+
+/// This class loads a weather .csv file into a weatherDataSet using every core of the computer.
+///
+/// ## Class overview
+/// The file is memory mapped instead of being read through a stream, and split into chunks
+/// that are parsed at the same time. Each chunk fills its own weatherDayStore and then adds up its
+/// own month table from it. Once every chunk is done the stores are joined in the order of the
+/// file with weatherDayStore.join, which lets go of every column of the chunks once it is copied,
+/// and the tables are merged into one table for the whole file. A file with more rows than one
+/// store can hold is refused with an IOException, its totals can still be loaded without the days.
+///
+/// ## Details about implementation
+///
+/// The chunk boundaries are first placed at an even size and then moved forward to the next new
+/// line, so no row is ever split between two chunks. Only the last chunk can end without a new line,
+/// and that last line is only parsed if it is a whole row, since a logger may be in the middle of
+/// writing it. bytesRead is then the position right after the last new line, which is where a
+/// weatherFileWatcher starts reading, so the rest of the row is read together with its start. Every chunk is a fork join task that maps
+/// its own part of the file with FileChannel.map, which also keeps each mapping below the 2 GB
+/// limit of a single MappedByteBuffer. Each task uses its own weatherCsvParser, the counters of
+/// the parsers are added up when the tasks are joined. The tasks are joined in the order of the
+/// file, and after every chunk a progressListener can be told how far the load is and be given a
+/// copy of the month totals so far, or cancel the chunks that have not started yet. The bytes, rows
+/// and times of every load are added to the weatherMetrics registry.
+public class weatherFileLoader {
+    // smallest and largest amount of bytes given to one task
+    private static final long MIN_CHUNK_SIZE = 1L << 20;
+    private static final long MAX_CHUNK_SIZE = 256L << 20;
+    // how many chunks are made for every core, so a slow chunk does not hold up the others
+    private static final int CHUNKS_PER_CORE = 4;
+
+    private final Path path;
+    // false when only the month totals are needed, the days are then not kept in memory
+    private final boolean keepDays;
+    // false when the chunks are parsed one after another on the thread that calls load
+    private final boolean parallel;
+    private long rowsParsed;
+    private long malformedLines;
+    private long bytesRead;
+
+    /// Receives the progress of a load, it is called on the thread that called load.
+    public interface progressListener {
+        /// Called after every chunk with a copy of the month totals of all the chunks so far.
+        void chunkLoaded(long bytesRead, long totalBytes, long rowsParsed, weatherMonthTable partial);
+        /// Returning true stops the load before the next chunk.
+        default boolean isCancelled() {
+            return false;
+        }
+    }
+
+    public weatherFileLoader(Path path) {
+        this(path, true);
+    }
+    /// Creates a loader that only adds up the month totals if keepDays is false, the data set it
+    /// returns then has an empty day store.
+    public weatherFileLoader(Path path, boolean keepDays) {
+        this(path, keepDays, true);
+    }
+    /// Creates a loader that parses the chunks one after another on the thread that calls load if
+    /// parallel is false, so a caller that loads many files at once decides how many threads are used.
+    public weatherFileLoader(Path path, boolean keepDays, boolean parallel) {
+        this.path = path;
+        this.keepDays = keepDays;
+        this.parallel = parallel;
+    }
+    /// Parses the whole file in parallel and returns its days and the totals of every month.
+    public weatherDataSet load() throws IOException {
+        return load(null);
+    }
+    /// Parses the whole file in parallel and tells the listener about every chunk that is done.
+    /// Throws a CancellationException if the listener cancels the load. The counters start from 0
+    /// on every call, so a loader can load its file again after the file grew.
+    public weatherDataSet load(progressListener listener) throws IOException {
+        rowsParsed = 0;
+        malformedLines = 0;
+        bytesRead = 0;
+        weatherMonthTable table = new weatherMonthTable();
+        weatherDayStore days;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long totalBytes = channel.size();
+            List<chunkTask> tasks = new ArrayList<>();
+            for (long[] chunk : splitChunks(channel)) {
+                chunkTask task = new chunkTask(channel, chunk[0], chunk[1], keepDays);
+                if (parallel)
+                    task.fork();
+                tasks.add(task);
+            }
+            try {
+                for (chunkTask task : tasks) {
+                    if (listener != null && listener.isCancelled()) {
+                        // chunks that already started finish on their own, the rest never run
+                        for (chunkTask other : tasks)
+                            other.cancel(false);
+                        throw new CancellationException("Loading " + path + " was cancelled");
+                    }
+                    if (parallel)
+                        task.join();
+                    else
+                        task.invoke();
+                    table.merge(task.table);
+                    rowsParsed += task.parser.rowsParsed();
+                    malformedLines += task.parser.malformedLines();
+                    if (keepDays && rowsParsed > weatherDayStore.MAX_SIZE) {
+                        for (chunkTask other : tasks)
+                            other.cancel(false);
+                        throw new IOException(path + " has more than " + weatherDayStore.MAX_SIZE
+                                + " rows, which is more days than can be kept in memory");
+                    }
+                    bytesRead += task.parsedLength;
+                    if (listener != null)
+                        listener.chunkLoaded(bytesRead, totalBytes, rowsParsed, table.copy());
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (keepDays) {
+                long joinStart = System.nanoTime();
+                List<weatherDayStore> parts = new ArrayList<>(tasks.size());
+                for (chunkTask task : tasks)
+                    parts.add(task.join());
+                days = weatherDayStore.join(parts);
+                weatherMetrics.time(weatherMetrics.AGGREGATE_TIME, System.nanoTime() - joinStart);
+            } else {
+                days = new weatherDayStore(0);
+            }
+        }
+        weatherMetrics.add(weatherMetrics.BYTES_READ, bytesRead);
+        weatherMetrics.add(weatherMetrics.ROWS_PARSED, rowsParsed);
+        weatherMetrics.add(weatherMetrics.ROWS_REJECTED, malformedLines);
+        return new weatherDataSet(days, table, malformedLines, bytesRead);
+    }
+    /// Splits the file into chunks of about the same size that each end right after a new line.
+    /// Every chunk is stored as its start position and its length.
+    private static List<long[]> splitChunks(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int chunkCount = Runtime.getRuntime().availableProcessors() * CHUNKS_PER_CORE;
+        long chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, size / chunkCount));
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(256);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + chunkSize);
+            end = nextLineStart(channel, end, size, probe);
+            chunks.add(new long[]{start, end - start});
+            start = end;
+        }
+        return chunks;
+    }
+    /// Returns the position right after the first new line at or after position, or the size of the
+    /// file if there are no new lines left.
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer probe) throws IOException {
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0)
+                return size;
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n')
+                    return position + i + 1;
+            }
+            position += read;
+        }
+        return size;
+    }
+    /// Returns the number of valid rows in the file at the last load.
+    public long rowsParsed() {
+        return rowsParsed;
+    }
+    /// Returns the number of lines in the file that could not be read at the last load.
+    public long malformedLines() {
+        return malformedLines;
+    }
+    /// Returns the number of bytes that were parsed at the last load.
+    public long bytesRead() {
+        return bytesRead;
+    }
+
+    /// Fork join task that maps and parses one chunk of the file into its own day store and month table.
+    private static class chunkTask extends RecursiveTask<weatherDayStore> {
+        private final FileChannel channel;
+        private final long start;
+        private final long length;
+        private final weatherCsvParser parser = new weatherCsvParser();
+        private final weatherMonthTable table = new weatherMonthTable();
+        private final boolean keepDays;
+        // the bytes of the chunk that were parsed, all of them unless the file ends in an unfinished row
+        private long parsedLength;
+
+        chunkTask(FileChannel channel, long start, long length, boolean keepDays) {
+            this.channel = channel;
+            this.start = start;
+            this.length = length;
+            this.keepDays = keepDays;
+        }
+
+        @Override
+        protected weatherDayStore compute() {
+            // a row takes at least 16 bytes in the file, which gives a good first guess of the size
+            weatherDayStore days = new weatherDayStore(keepDays ? (int) (length / 16) : 0);
+            weatherMetrics.chunkParseEvent event = new weatherMetrics.chunkParseEvent();
+            event.begin();
+            long parseStart = System.nanoTime();
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                weatherCsvParser.rowSink sink = keepDays ? days::add
+                        : (year, month, day, temperature, humidity, rained) -> table.add(year, month, temperature, humidity, rained);
+                int end = parser.parse(buffer, 0, (int) length, false, sink);
+                if (end < length && parser.parseLastLine(buffer, end, (int) length, sink))
+                    end = (int) length;
+                parsedLength = end;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            long aggregateStart = System.nanoTime();
+            weatherMetrics.time(weatherMetrics.PARSE_TIME, aggregateStart - parseStart);
+            if (keepDays) {
+                table.addAll(days);
+                event.aggregateNanos = System.nanoTime() - aggregateStart;
+                weatherMetrics.time(weatherMetrics.AGGREGATE_TIME, event.aggregateNanos);
+            }
+            event.start = start;
+            event.length = length;
+            event.rowsParsed = parser.rowsParsed();
+            event.commit();
+            return days;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.module04assignment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/// This class watches a weather .csv file and reads the rows that are appended to it.
+///
+/// ## Class overview
+/// The watcher remembers how many bytes of the file have already been read. Every time the file
+/// changes it reads only the bytes after that position, parses them into a weatherDayStore and
+/// passes that store to a listener, so the cost of an update depends on how much was appended and
+/// not on the size of the file. If the file gets shorter it was replaced, so the watcher stops and
+/// the listener is told to load it again.
+///
+/// ## Details about implementation
+///
+/// It uses a WatchService on the folder of the file, since a WatchService can only watch folders,
+/// and runs on its own daemon thread. A row that is only partly written when the change is seen
+/// stays in the buffer and its bytes are read again with the next change. The listener is called on
+/// the watcher thread, a JavaFX controller should hand the result to Platform.runLater.
+public class weatherFileWatcher implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /// Receives the days that were appended to the watched file.
+    public interface appendListener {
+        /// Called with the days of every complete row that was appended since the last call.
+        void appended(weatherDayStore days);
+        /// Called when the file got shorter than what was already read, so it has to be loaded again.
+        /// The watcher stops after this call.
+        void replaced();
+    }
+
+    private final Path file;
+    private final appendListener listener;
+    private final weatherCsvParser parser = new weatherCsvParser();
+    private final WatchService watchService;
+    private final Thread thread;
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    // the position right after the last complete row that was read
+    private volatile long offset;
+
+    /// Creates a watcher for a file of which the first offset bytes were already loaded.
+    public weatherFileWatcher(Path file, long offset, appendListener listener) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.offset = offset;
+        this.listener = listener;
+        this.watchService = this.file.getFileSystem().newWatchService();
+        this.file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+        this.thread = new Thread(this::watch, "weather-file-watcher");
+        thread.setDaemon(true);
+    }
+    /// Starts watching the file, this also reads anything that was appended since it was loaded.
+    public void start() {
+        thread.start();
+    }
+    /// Returns the number of bytes of the file that have been read so far.
+    public long offset() {
+        return offset;
+    }
+
+    private void watch() {
+        try {
+            readAppended();
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (file.getFileName().equals(event.context()))
+                        changed = true;
+                }
+                if (changed)
+                    readAppended();
+                if (!key.reset())
+                    return;
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // the watcher was closed
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    /// Reads and parses the bytes between the offset and the end of the file.
+    private void readAppended() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < offset) {
+                watchService.close();
+                listener.replaced();
+                return;
+            }
+            weatherDayStore appended = new weatherDayStore();
+            buffer.clear();
+            long position = offset;
+            while (position < size) {
+                if (!buffer.hasRemaining()) {
+                    // a single row does not fit in the buffer, so the buffer has to grow
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+                }
+                int read = channel.read(buffer, position);
+                if (read <= 0)
+                    break;
+                position += read;
+                int consumed = parser.parse(buffer, 0, buffer.position(), false, appended::add);
+                offset += consumed;
+                // keep the unfinished row at the front of the buffer
+                buffer.limit(buffer.position()).position(consumed);
+                buffer.compact();
+            }
+            if (appended.size() > 0)
+                listener.appended(appended);
+        }
+    }
+    /// Stops watching the file.
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.module04assignment;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/// This class loads a weather .csv file that is compressed with gzip, without writing the
+/// uncompressed file to disk.
+///
+/// ## Class overview
+/// A gzip file can only be decompressed from the start to the end, so it can not be split into
+/// chunks like weatherFileLoader does. Instead the work is split into three stages that run at the
+/// same time on different threads: one thread decompresses the file into buffers, a second thread
+/// parses the buffers into small weatherDayStores, and the thread that called load adds those
+/// stores to the month table and to the days of the whole file. While one buffer is parsed the
+/// next one is already being decompressed.
+///
+/// ## Details about implementation
+///
+/// The stages hand their work to each other through bounded ArrayBlockingQueues, so a fast stage
+/// waits for a slow one instead of filling the memory. The decompressed buffers are taken from a
+/// small pool and given back once they are parsed. A row that is cut off at the end of a buffer is
+/// kept by the parser and finished with the start of the next buffer. The end of the input, and any
+/// error of a stage, are passed down the queues with an empty buffer or store, and the error is
+/// thrown again on the calling thread. The progress is the number of compressed bytes read, so it
+/// can be compared with the size of the file. The decompress stage owns the file and closes it when
+/// it is done, so it counts the compressed bytes in an AtomicLong as they go through its stream and
+/// the calling thread only reads that counter.
+public class weatherGzipLoader {
+    public static final String EXTENSION = ".gz";
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    // how many buffers and stores can wait between two stages
+    private static final int QUEUE_SIZE = 4;
+    private static final ByteBuffer END_OF_BUFFERS = ByteBuffer.allocate(0);
+    private static final weatherDayStore END_OF_DAYS = new weatherDayStore(0);
+
+    private final Path path;
+    private final boolean keepDays;
+    private final weatherCsvParser parser = new weatherCsvParser();
+    private final BlockingQueue<ByteBuffer> freeBuffers = new ArrayBlockingQueue<>(QUEUE_SIZE + 2);
+    private final BlockingQueue<ByteBuffer> filledBuffers = new ArrayBlockingQueue<>(QUEUE_SIZE + 2);
+    private final BlockingQueue<weatherDayStore> parsedDays = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    // the first error of the decompress or parse stage
+    private volatile Exception failure;
+    // compressed bytes the decompress stage has read so far
+    private final AtomicLong compressedBytes = new AtomicLong();
+    private long bytesRead;
+
+    public weatherGzipLoader(Path path) {
+        this(path, true);
+    }
+    /// Creates a loader that only adds up the month totals if keepDays is false, the data set it
+    /// returns then has an empty day store.
+    public weatherGzipLoader(Path path, boolean keepDays) {
+        this.path = path;
+        this.keepDays = keepDays;
+    }
+    /// Decompresses and parses the whole file and returns its days and the totals of every month.
+    public weatherDataSet load() throws IOException {
+        return load(null);
+    }
+    /// Decompresses and parses the whole file and tells the listener about every buffer that is done.
+    /// Throws a CancellationException if the listener cancels the load.
+    public weatherDataSet load(weatherFileLoader.progressListener listener) throws IOException {
+        weatherMonthTable table = new weatherMonthTable();
+        weatherDayStore days = new weatherDayStore();
+        for (int i = 0; i < QUEUE_SIZE + 2; i++)
+            freeBuffers.add(ByteBuffer.allocate(BUFFER_SIZE));
+        long totalBytes = Files.size(path);
+        // closing the file twice does nothing, so it is also closed here in case the decompress stage stopped early
+        try (InputStream file = Files.newInputStream(path)) {
+            // a stage that fails hands the end of the input to the next stage, so nothing waits forever
+            Thread decompressor = startStage("weather-gzip-decompress", () -> decompress(file), () -> {
+                filledBuffers.clear();
+                filledBuffers.offer(END_OF_BUFFERS);
+            });
+            Thread parserThread = startStage("weather-gzip-parse", this::parse, () -> {
+                parsedDays.clear();
+                parsedDays.offer(END_OF_DAYS);
+            });
+            try {
+                while (true) {
+                    if (listener != null && listener.isCancelled())
+                        throw new CancellationException("Loading " + path + " was cancelled");
+                    weatherDayStore batch = parsedDays.take();
+                    if (batch == END_OF_DAYS)
+                        break;
+                    long aggregateStart = System.nanoTime();
+                    table.addAll(batch);
+                    if (keepDays)
+                        days.addAll(batch);
+                    weatherMetrics.time(weatherMetrics.AGGREGATE_TIME, System.nanoTime() - aggregateStart);
+                    if (listener != null)
+                        listener.chunkLoaded(compressedBytes.get(), totalBytes, parser.rowsParsed(), table.copy());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Loading " + path + " was interrupted", e);
+            } finally {
+                // stops the other stages if this one stopped early
+                decompressor.interrupt();
+                parserThread.interrupt();
+            }
+            if (failure instanceof IOException e)
+                throw e;
+            if (failure != null)
+                throw new IOException("Could not load " + path, failure);
+            bytesRead = totalBytes;
+        }
+        weatherMetrics.add(weatherMetrics.BYTES_READ, bytesRead);
+        weatherMetrics.add(weatherMetrics.ROWS_PARSED, parser.rowsParsed());
+        weatherMetrics.add(weatherMetrics.ROWS_REJECTED, parser.malformedLines());
+        return new weatherDataSet(keepDays ? days : new weatherDayStore(0), table, parser.malformedLines(), bytesRead);
+    }
+
+    /// A stage of the pipeline, it can throw anything since the error is handed to the calling thread.
+    private interface stage {
+        void run() throws Exception;
+    }
+
+    /// Starts a stage on its own daemon thread, if it fails its error is kept and onFailure is run.
+    private Thread startStage(String name, stage stage, Runnable onFailure) {
+        Thread thread = new Thread(() -> {
+            try {
+                stage.run();
+            } catch (InterruptedException e) {
+                // the load was cancelled or failed somewhere else
+            } catch (Exception e) {
+                if (failure == null)
+                    failure = e;
+                onFailure.run();
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+    /// First stage: decompresses the file into buffers from the pool until the file ends, then closes it.
+    private void decompress(InputStream file) throws IOException, InterruptedException {
+        InputStream counted = new FilterInputStream(file) {
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                int read = super.read(bytes, offset, length);
+                if (read > 0)
+                    compressedBytes.addAndGet(read);
+                return read;
+            }
+        };
+        try (InputStream in = new GZIPInputStream(counted, 64 * 1024)) {
+            while (true) {
+                ByteBuffer buffer = freeBuffers.take();
+                buffer.clear();
+                int read = 0;
+                while (buffer.hasRemaining() && (read = in.read(buffer.array(), buffer.position(), buffer.remaining())) > 0)
+                    buffer.position(buffer.position() + read);
+                buffer.flip();
+                if (buffer.hasRemaining())
+                    filledBuffers.put(buffer);
+                if (read < 0) {
+                    filledBuffers.put(END_OF_BUFFERS);
+                    return;
+                }
+            }
+        }
+    }
+    /// Second stage: parses every buffer into its own day store, and keeps an unfinished row for the next buffer.
+    private void parse() throws InterruptedException {
+        ByteBuffer work = ByteBuffer.allocate(BUFFER_SIZE * 2);
+        while (true) {
+            ByteBuffer buffer = filledBuffers.take();
+            boolean end = buffer == END_OF_BUFFERS;
+            if (work.remaining() < buffer.remaining())
+                work = ByteBuffer.allocate((work.position() + buffer.remaining()) * 2).put(work.flip());
+            work.put(buffer);
+            if (!end)
+                freeBuffers.put(buffer);
+            long parseStart = System.nanoTime();
+            weatherDayStore batch = new weatherDayStore(work.position() / 16);
+            int consumed = parser.parse(work, 0, work.position(), end, batch::add);
+            weatherMetrics.time(weatherMetrics.PARSE_TIME, System.nanoTime() - parseStart);
+            work.limit(work.position()).position(consumed);
+            work.compact();
+            if (batch.size() > 0)
+                parsedDays.put(batch);
+            if (end) {
+                parsedDays.put(END_OF_DAYS);
+                return;
+            }
+        }
+    }
+    /// Returns the number of valid rows in the file.
+    public long rowsParsed() {
+        return parser.rowsParsed();
+    }
+    /// Returns the number of lines in the file that could not be read.
+    public long malformedLines() {
+        return parser.malformedLines();
+    }
+    /// Returns the number of compressed bytes that were read.
+    public long bytesRead() {
+        return bytesRead;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.module04assignment;
+
+import javafx.scene.image.Image;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/// This class keeps the images of the application so every image is only decoded once.
+///
+/// ## Class overview
+/// The images of the temperature status (hot, cold and warm) are shown every time the month
+/// changes, so they are started loading when the application starts, before the user picks a
+/// file. Every other image in the images folder is loaded the first time it is asked for, and
+/// after that the same Image object is handed out again, for example:
+/// <pre>
+/// imageView.setImage(weatherImageCache.get("sky.jpg"));
+/// </pre>
+///
+/// ## Details about implementation
+///
+/// The images are created with background loading turned on, so JavaFX decodes them on its own
+/// background thread and an ImageView that already shows one is updated as soon as it is done.
+/// They are kept in a ConcurrentHashMap by file name, and since there are only a few small images
+/// in the folder nothing is ever removed from it.
+public class weatherImageCache {
+    private static final Map<String, Image> IMAGES = new ConcurrentHashMap<>();
+
+    private weatherImageCache() {
+    }
+    /// Starts loading the images of the temperature status in the background.
+    public static void preloadStatusImages() {
+        for (weatherAnalyticsController.temperatureStatus status : weatherAnalyticsController.temperatureStatus.values())
+            statusImage(status);
+    }
+    /// Returns the image of a temperature status.
+    static Image statusImage(weatherAnalyticsController.temperatureStatus status) {
+        return switch (status) {
+            case hot -> get("hot.png");
+            case cold -> get("cold.jpg");
+            case warm -> get("warm.png");
+        };
+    }
+    /// Returns an image of the images folder, it is only loaded the first time it is asked for.
+    /// The hits and misses are counted in weatherMetrics.
+    public static Image get(String name) {
+        Image image = IMAGES.get(name);
+        if (image != null) {
+            weatherMetrics.add(weatherMetrics.IMAGE_CACHE_HITS, 1);
+            return image;
+        }
+        return IMAGES.computeIfAbsent(name, key -> {
+            weatherMetrics.add(weatherMetrics.IMAGE_CACHE_MISSES, 1);
+            return new Image(Objects.requireNonNull(weatherImageCache.class.getResource("/images/" + key), key).toExternalForm(), true);
+        });
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.module04assignment;
+
+import javafx.concurrent.Task;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/// This class loads a weather file, or a folder of station files, in the background so the window keeps responding.
+///
+/// ## Class overview
+/// The task loads the file with weatherDataSet.load and reports how far it got through the
+/// progress and message properties of the Task, with the number of bytes read and the rows
+/// parsed per second. While a .csv file is loading, the value property is updated after every
+/// chunk with the month totals read so far, so a controller can already show them.
+///
+/// ## Details about implementation
+///
+/// Every value has an empty day store, the final one too. Once the file is loaded the task builds
+/// the weatherRangeIndex of its days, so the date range queries are ready without any work on the
+/// JavaFX thread, and then lets go of the days, since the screen only needs the totals and the index
+/// and a value from the summary cache has no days either. The totals and the index of a
+/// single file are then written to its weatherSummaryCache sidecar, and if the file has not changed
+/// the next time it is opened they are read from there and the file is not parsed at all.
+/// A folder is loaded with weatherStationSet, the value is then the combined totals of the stations
+/// and is updated after every station, and the stations are kept for the breakdown with their month
+/// totals but without their days.
+/// Cancelling the task stops the loader before its next chunk or station.
+public class weatherLoadTask extends Task<weatherDataSet> {
+    private final Path path;
+    private volatile weatherRangeIndex rangeIndex;
+    private volatile List<weatherStationSet.station> stations = List.of();
+
+    public weatherLoadTask(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    protected weatherDataSet call() throws IOException {
+        long start = System.nanoTime();
+        updateMessage("Loading " + path.getFileName() + "...");
+        if (Files.isDirectory(path))
+            return loadFolder(start);
+        weatherSummaryCache.entry cached = readCache();
+        if (cached != null) {
+            rangeIndex = cached.rangeIndex();
+            updateProgress(1, 1);
+            updateMessage(String.format("Opened %s from its summary cache in %.1f ms", path.getFileName(),
+                    (System.nanoTime() - start) / 1e6));
+            return cached.data();
+        }
+        weatherDataSet data = weatherDataSet.load(path, new weatherFileLoader.progressListener() {
+            @Override
+            public void chunkLoaded(long bytesRead, long totalBytes, long rowsParsed, weatherMonthTable partial) {
+                updateProgress(bytesRead, totalBytes);
+                updateMessage(progressText(bytesRead, rowsParsed, start));
+                updateValue(new weatherDataSet(new weatherDayStore(0), partial, 0, bytesRead));
+            }
+            @Override
+            public boolean isCancelled() {
+                return weatherLoadTask.this.isCancelled();
+            }
+        });
+        rangeIndex = new weatherRangeIndex(data.days());
+        // a file that grew while it was loading has rows that are not in the data set
+        if (Files.size(path) == data.bytesRead()) {
+            try {
+                weatherSummaryCache.write(path, data, rangeIndex);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        updateProgress(1, 1);
+        updateMessage(progressText(data.bytesRead(), data.days().size(), start));
+        return data.withoutDays();
+    }
+    /// Returns the sidecar of the file, or null if it has none or it can not be used.
+    private weatherSummaryCache.entry readCache() {
+        weatherSummaryCache.entry cached = null;
+        try {
+            cached = weatherSummaryCache.read(path);
+        } catch (IOException | RuntimeException e) {
+            // a broken sidecar is the same as no sidecar, it is written again after the load
+        }
+        weatherMetrics.add(cached == null ? weatherMetrics.SUMMARY_CACHE_MISSES : weatherMetrics.SUMMARY_CACHE_HITS, 1);
+        return cached;
+    }
+    /// Loads every station of the folder and returns their combined totals.
+    private weatherDataSet loadFolder(long start) throws IOException {
+        weatherStationSet set = weatherStationSet.load(path, new weatherStationSet.stationListener() {
+            private long bytesRead;
+            private long rows;
+
+            @Override
+            public void stationLoaded(weatherStationSet.station station, int loaded, int total, weatherMonthTable partial) {
+                bytesRead += station.data().bytesRead();
+                rows += station.data().days().size();
+                updateProgress(loaded, total);
+                updateMessage(loaded + " of " + total + " stations, " + progressText(bytesRead, rows, start));
+                updateValue(new weatherDataSet(new weatherDayStore(0), partial, 0, bytesRead));
+            }
+            @Override
+            public boolean isCancelled() {
+                return weatherLoadTask.this.isCancelled();
+            }
+        });
+        rangeIndex = set.rangeIndex();
+        stations = set.withoutDays().stations();
+        updateProgress(1, 1);
+        updateMessage(set.stations().size() + " stations, " + progressText(set.bytesRead(), set.rowsParsed(), start));
+        return set.combined();
+    }
+    /// Returns the stations of a loaded folder, or an empty list if a single file was loaded.
+    public List<weatherStationSet.station> stations() {
+        return stations;
+    }
+    /// Returns the range index of the loaded days, or null if the task is not done yet.
+    public weatherRangeIndex rangeIndex() {
+        return rangeIndex;
+    }
+    /// Builds the text shown under the progress bar, like "12.5 MB read, 1,234,567 rows/s".
+    private static String progressText(long bytesRead, long rows, long start) {
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+        return String.format("%.1f MB read, %,d rows/s", bytesRead / 1e6, (long) (rows / seconds));
+    }
+}
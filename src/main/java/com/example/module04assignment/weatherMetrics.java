@@ -0,0 +1,230 @@
+package com.example.module04assignment;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/// This class counts and times what the application does, so a run can be profiled without adding prints.
+///
+/// ## Class overview
+/// It is a registry of named counters and timers that any class can add to, for example the
+/// number of bytes read or how long the chunks of a file took to parse. The values can be asked
+/// for at any time with count, totalNanos or snapshot. The class also has the JDK Flight Recorder
+/// events of the application, which are only recorded while a recording is running, for example:
+/// <pre>
+/// java -XX:StartFlightRecording=filename=weather.jfr ...
+/// jfr print --categories "Weather Analyzer" weather.jfr
+/// </pre>
+///
+/// ## Details about implementation
+///
+/// The counters are LongAdders kept in a ConcurrentHashMap by name, so the threads of the fork join
+/// pool can add to the same counter without waiting for each other. The classes only add to them
+/// once per chunk or file and never once per row, so the parsing loops are not slowed down. Every
+/// counter and timer is also written to a recording once a second as a metric event, so the
+/// registry can be read from a recording as well.
+public final class weatherMetrics {
+    /// names of the counters
+    public static final String BYTES_READ = "load.bytesRead";
+    public static final String ROWS_PARSED = "load.rowsParsed";
+    public static final String ROWS_REJECTED = "load.rowsRejected";
+    public static final String IMAGE_CACHE_HITS = "imageCache.hits";
+    public static final String IMAGE_CACHE_MISSES = "imageCache.misses";
+    public static final String SUMMARY_CACHE_HITS = "summaryCache.hits";
+    public static final String SUMMARY_CACHE_MISSES = "summaryCache.misses";
+    public static final String QUERY_CACHE_HITS = "queryCache.hits";
+    public static final String QUERY_CACHE_MISSES = "queryCache.misses";
+    public static final String ROWS_GENERATED = "generate.rows";
+    public static final String MONTH_LOOKUPS = "analytics.monthLookups";
+    /// names of the timers
+    public static final String PARSE_TIME = "load.parseTime";
+    public static final String AGGREGATE_TIME = "load.aggregateTime";
+    public static final String LOAD_TIME = "load.totalTime";
+    public static final String GENERATE_TIME = "generate.time";
+    public static final String FIRST_MONTH_TIME = "analytics.firstMonthTime";
+    public static final String QUERY_TIME = "query.time";
+
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, timer> TIMERS = new ConcurrentHashMap<>();
+
+    static {
+        FlightRecorder.addPeriodicEvent(metricEvent.class, weatherMetrics::emitMetrics);
+    }
+
+    private weatherMetrics() {
+    }
+
+    /// A timer keeps how many times something was timed, the total time and the longest time.
+    private static class timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+    /// Adds an amount to a counter, the counter is created the first time it is used.
+    public static void add(String counter, long amount) {
+        COUNTERS.computeIfAbsent(counter, name -> new LongAdder()).add(amount);
+    }
+    /// Adds one time to a timer, the timer is created the first time it is used.
+    public static void time(String timer, long nanos) {
+        TIMERS.computeIfAbsent(timer, name -> new timer()).record(nanos);
+    }
+    /// Returns the value of a counter, or the number of times a timer was used.
+    public static long count(String name) {
+        LongAdder counter = COUNTERS.get(name);
+        if (counter != null)
+            return counter.sum();
+        timer timer = TIMERS.get(name);
+        return timer == null ? 0 : timer.count.sum();
+    }
+    /// Returns the total time of a timer in nanoseconds.
+    public static long totalNanos(String timer) {
+        timer value = TIMERS.get(timer);
+        return value == null ? 0 : value.totalNanos.sum();
+    }
+    /// Returns the longest time of a timer in nanoseconds.
+    public static long maxNanos(String timer) {
+        timer value = TIMERS.get(timer);
+        return value == null ? 0 : value.maxNanos.get();
+    }
+    /// Returns every counter and timer sorted by name, a timer gives three values named
+    /// name.count, name.totalNanos and name.maxNanos.
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> values = new TreeMap<>();
+        COUNTERS.forEach((name, counter) -> values.put(name, counter.sum()));
+        TIMERS.forEach((name, timer) -> {
+            values.put(name + ".count", timer.count.sum());
+            values.put(name + ".totalNanos", timer.totalNanos.sum());
+            values.put(name + ".maxNanos", timer.maxNanos.get());
+        });
+        return values;
+    }
+
+    private static void emitMetrics() {
+        snapshot().forEach((name, value) -> {
+            metricEvent event = new metricEvent();
+            event.name = name;
+            event.value = value;
+            event.commit();
+        });
+    }
+
+    /// Event with the value of one counter or timer of the registry, written once a second.
+    @Name("com.example.module04assignment.Metric")
+    @Label("Weather Metric")
+    @Category("Weather Analyzer")
+    @Period("1 s")
+    @StackTrace(false)
+    static class metricEvent extends Event {
+        @Label("Name")
+        String name;
+        @Label("Value")
+        long value;
+    }
+
+    /// Event for loading a whole file, its duration is the time the load took.
+    @Name("com.example.module04assignment.FileLoad")
+    @Label("Weather File Load")
+    @Category("Weather Analyzer")
+    @Description("Loading a .csv or .wdb weather file")
+    static class fileLoadEvent extends Event {
+        @Label("Path")
+        String path;
+        @Label("Bytes Read")
+        @DataAmount
+        long bytesRead;
+        @Label("Rows Parsed")
+        long rowsParsed;
+        @Label("Rows Rejected")
+        long rowsRejected;
+    }
+
+    /// Event for parsing one chunk of a .csv file on a fork join thread.
+    @Name("com.example.module04assignment.ChunkParse")
+    @Label("Weather Chunk Parse")
+    @Category("Weather Analyzer")
+    @StackTrace(false)
+    static class chunkParseEvent extends Event {
+        @Label("Start")
+        long start;
+        @Label("Length")
+        @DataAmount
+        long length;
+        @Label("Rows Parsed")
+        long rowsParsed;
+        @Label("Aggregate Time")
+        @Timespan
+        long aggregateNanos;
+    }
+
+    /// Event for looking up the totals of a month on the analytics screen.
+    @Name("com.example.module04assignment.MonthLookup")
+    @Label("Weather Month Lookup")
+    @Category("Weather Analyzer")
+    @StackTrace(false)
+    static class monthLookupEvent extends Event {
+        @Label("Year")
+        int year;
+        @Label("Month")
+        int month;
+        @Label("Days")
+        int days;
+        @Label("Temperature Sum")
+        long temperatureSum;
+        @Label("Average Temperature")
+        double averageTemperature;
+        @Label("Rainy Days")
+        int rainyDays;
+    }
+
+    /// Event for the time from the user picking a file to the first month of it being drawn on screen.
+    @Name("com.example.module04assignment.FirstMonth")
+    @Label("Weather First Month")
+    @Category("Weather Analyzer")
+    @StackTrace(false)
+    static class firstMonthEvent extends Event {
+        @Label("Path")
+        String path;
+        @Label("Latency")
+        @Timespan
+        long latency;
+        @Label("Preloaded Scene")
+        boolean preloadedScene;
+        @Label("Preloaded Data")
+        boolean preloadedData;
+    }
+
+    /// Event for generating the file of one station.
+    @Name("com.example.module04assignment.Generate")
+    @Label("Weather File Generate")
+    @Category("Weather Analyzer")
+    static class generateEvent extends Event {
+        @Label("Path")
+        String path;
+        @Label("Rows")
+        long rows;
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+        @Label("Rows Per Second")
+        double rowsPerSecond;
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.module04assignment;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.YearMonth;
+import java.util.Arrays;
+
+/// This class holds the running totals of the weather data for every month of every year in a file.
+///
+/// ## Class overview
+/// The table is filled in one pass over a file, one day at a time, and afterward any year and
+/// month can be summarized without reading the file again. Months are numbered 1-12, the same way
+/// they are written in the .csv files, and the same month of two different years is kept apart.
+///
+/// ## Details about implementation
+///
+/// It keeps one slot per YearMonth between the first and the last year of the file in plain arrays
+/// for the sum of the temperatures, the number of days and the number of rainy days. The slot of a
+/// month is
+/// <pre>
+/// (year - firstYear) * 12 + month - 1
+/// </pre>
+/// so looking up a month is just an array access, even for a file that covers a whole century.
+/// The arrays grow when a day from a year outside of the range is added.
+/// </a>
+/// Every slot also has a weatherDistribution for the temperature and one for the humidity, filled
+/// in the same pass as the sums, which give the minimum, maximum, standard deviation and percentiles
+/// of the month. They are made the first time a day of the month is added and their size does not
+/// depend on the number of days. Totals added with addTotals have no distributions.
+public class weatherMonthTable {
+    private static final int MONTHS = 12;
+    // the range of the histograms, in °F for the temperature and the whole range of the day store for the humidity
+    private static final int TEMPERATURE_LOW = -100;
+    private static final int TEMPERATURE_HIGH = 160;
+    private static final int HUMIDITY_LOW = Byte.MIN_VALUE;
+    private static final int HUMIDITY_HIGH = Byte.MAX_VALUE;
+
+    private int firstYear;
+    private int yearCount;
+    private long[] temperatureSums = new long[0];
+    private int[] dayCounts = new int[0];
+    private int[] rainyDays = new int[0];
+    private weatherDistribution[] temperatures = new weatherDistribution[0];
+    private weatherDistribution[] humidities = new weatherDistribution[0];
+
+    /// Adds the data of a single day to the totals of its month.
+    public void add(int year, int month, int temperature, int humidity, int rained) {
+        int slot = slotFor(year, month);
+        temperatureSums[slot] += temperature;
+        dayCounts[slot]++;
+        if (rained == 1)
+            rainyDays[slot]++;
+        addDistributions(slot, temperature, humidity);
+    }
+    /// Adds totals that were already added up somewhere else, like the index of a .wdb file.
+    public void addTotals(int year, int month, long temperatureSum, int days, int rainyDays) {
+        int slot = slotFor(year, month);
+        temperatureSums[slot] += temperatureSum;
+        dayCounts[slot] += days;
+        this.rainyDays[slot] += rainyDays;
+    }
+    /// Adds every day of a day store to the totals of their months, using a plain loop over
+    /// the columns of the store.
+    public void addAll(weatherDayStore days) {
+        for (int i = 0; i < days.size(); i++) {
+            int slot = slotFor(days.year(i), days.month(i));
+            temperatureSums[slot] += days.temperature(i);
+            dayCounts[slot]++;
+            rainyDays[slot] += days.rained(i);
+            addDistributions(slot, days.temperature(i), days.humidity(i));
+        }
+    }
+    /// Adds a temperature and humidity to the distributions of a slot, making them if they do not exist yet.
+    private void addDistributions(int slot, int temperature, int humidity) {
+        if (temperatures[slot] == null) {
+            temperatures[slot] = new weatherDistribution(TEMPERATURE_LOW, TEMPERATURE_HIGH);
+            humidities[slot] = new weatherDistribution(HUMIDITY_LOW, HUMIDITY_HIGH);
+        }
+        temperatures[slot].add(temperature);
+        humidities[slot].add(humidity);
+    }
+    /// Adds all the totals of another table to this one, this is used to combine the tables
+    /// that were filled from different parts of the same file.
+    public void merge(weatherMonthTable other) {
+        if (other.yearCount == 0)
+            return;
+        // make sure both the first and the last year of the other table have slots here
+        slotFor(other.firstYear, 1);
+        slotFor(other.firstYear + other.yearCount - 1, 1);
+        int offset = (other.firstYear - firstYear) * MONTHS;
+        for (int slot = 0; slot < other.yearCount * MONTHS; slot++) {
+            temperatureSums[offset + slot] += other.temperatureSums[slot];
+            dayCounts[offset + slot] += other.dayCounts[slot];
+            rainyDays[offset + slot] += other.rainyDays[slot];
+            if (other.temperatures[slot] != null) {
+                if (temperatures[offset + slot] == null) {
+                    temperatures[offset + slot] = new weatherDistribution(TEMPERATURE_LOW, TEMPERATURE_HIGH);
+                    humidities[offset + slot] = new weatherDistribution(HUMIDITY_LOW, HUMIDITY_HIGH);
+                }
+                temperatures[offset + slot].merge(other.temperatures[slot]);
+                humidities[offset + slot].merge(other.humidities[slot]);
+            }
+        }
+    }
+    /// Returns a new table with the same totals, which can be handed to another thread while
+    /// this one is still being filled.
+    public weatherMonthTable copy() {
+        weatherMonthTable copy = new weatherMonthTable();
+        copy.merge(this);
+        return copy;
+    }
+    /// Returns the slot of a month, and grows the arrays first if the year is not in the table yet.
+    private int slotFor(int year, int month) {
+        if (yearCount == 0) {
+            firstYear = year;
+            resize(0, 1);
+        } else if (year < firstYear) {
+            resize(firstYear - year, yearCount + firstYear - year);
+            firstYear = year;
+        } else if (year >= firstYear + yearCount) {
+            resize(0, year - firstYear + 1);
+        }
+        return (year - firstYear) * MONTHS + month - 1;
+    }
+    /// Makes the arrays hold the given number of years, with the old years moved forward by shift years.
+    private void resize(int shift, int years) {
+        temperatureSums = moved(temperatureSums, shift, years);
+        dayCounts = moved(dayCounts, shift, years);
+        rainyDays = moved(rainyDays, shift, years);
+        temperatures = moved(temperatures, shift, years);
+        humidities = moved(humidities, shift, years);
+        yearCount = years;
+    }
+
+    private static long[] moved(long[] values, int shift, int years) {
+        long[] result = new long[years * MONTHS];
+        System.arraycopy(values, 0, result, shift * MONTHS, values.length);
+        return result;
+    }
+
+    private static int[] moved(int[] values, int shift, int years) {
+        int[] result = new int[years * MONTHS];
+        System.arraycopy(values, 0, result, shift * MONTHS, values.length);
+        return result;
+    }
+
+    private static weatherDistribution[] moved(weatherDistribution[] values, int shift, int years) {
+        weatherDistribution[] result = new weatherDistribution[years * MONTHS];
+        System.arraycopy(values, 0, result, shift * MONTHS, values.length);
+        return result;
+    }
+    /// Writes every slot of the table, so weatherSummaryCache can read it back with read.
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(firstYear);
+        out.writeInt(yearCount);
+        for (int slot = 0; slot < yearCount * MONTHS; slot++) {
+            out.writeLong(temperatureSums[slot]);
+            out.writeInt(dayCounts[slot]);
+            out.writeInt(rainyDays[slot]);
+            out.writeBoolean(temperatures[slot] != null);
+            if (temperatures[slot] != null) {
+                temperatures[slot].write(out);
+                humidities[slot].write(out);
+            }
+        }
+    }
+    /// Reads a table that was written with write.
+    static weatherMonthTable read(ByteBuffer in) {
+        weatherMonthTable table = new weatherMonthTable();
+        table.firstYear = in.getInt();
+        table.resize(0, in.getInt());
+        for (int slot = 0; slot < table.yearCount * MONTHS; slot++) {
+            table.temperatureSums[slot] = in.getLong();
+            table.dayCounts[slot] = in.getInt();
+            table.rainyDays[slot] = in.getInt();
+            if (in.get() != 0) {
+                table.temperatures[slot] = weatherDistribution.read(in);
+                table.humidities[slot] = weatherDistribution.read(in);
+            }
+        }
+        return table;
+    }
+    /// Returns the slot of a month that is already in the table, or -1 if its year is not.
+    private int lookup(int year, int month) {
+        if (year < firstYear || year >= firstYear + yearCount)
+            return -1;
+        return (year - firstYear) * MONTHS + month - 1;
+    }
+    /// Returns every year that has at least one day, from the oldest to the newest.
+    public int[] years() {
+        int[] years = new int[yearCount];
+        int count = 0;
+        for (int year = 0; year < yearCount; year++) {
+            for (int month = 0; month < MONTHS; month++) {
+                if (dayCounts[year * MONTHS + month] > 0) {
+                    years[count++] = firstYear + year;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(years, count);
+    }
+    /// Returns the sum of all the temperatures recorded for a month.
+    public long temperatureSum(int year, int month) {
+        int slot = lookup(year, month);
+        return slot < 0 ? 0 : temperatureSums[slot];
+    }
+    /// Returns the number of days recorded for a month.
+    public int dayCount(int year, int month) {
+        int slot = lookup(year, month);
+        return slot < 0 ? 0 : dayCounts[slot];
+    }
+    /// Returns the number of days it rained during a month.
+    public int rainyDays(int year, int month) {
+        int slot = lookup(year, month);
+        return slot < 0 ? 0 : rainyDays[slot];
+    }
+    /// Returns the distribution of the temperatures of a month, it is empty if the month has no days
+    /// or only has totals. The distribution belongs to the table and should not be changed.
+    public weatherDistribution temperatureStats(int year, int month) {
+        int slot = lookup(year, month);
+        return slot < 0 || temperatures[slot] == null ? new weatherDistribution(TEMPERATURE_LOW, TEMPERATURE_HIGH) : temperatures[slot];
+    }
+    /// Returns the distribution of the humidity of a month, it is empty if the month has no days
+    /// or only has totals. The distribution belongs to the table and should not be changed.
+    public weatherDistribution humidityStats(int year, int month) {
+        int slot = lookup(year, month);
+        return slot < 0 || humidities[slot] == null ? new weatherDistribution(HUMIDITY_LOW, HUMIDITY_HIGH) : humidities[slot];
+    }
+    /// Returns the average temperature of a month, or NaN if the month has no days.
+    public double averageTemperature(int year, int month) {
+        return (double) temperatureSum(year, month) / dayCount(year, month);
+    }
+    /// Returns the number of days recorded for a YearMonth.
+    public int dayCount(YearMonth yearMonth) {
+        return dayCount(yearMonth.getYear(), yearMonth.getMonthValue());
+    }
+    /// Returns the average temperature of a YearMonth, or NaN if it has no days.
+    public double averageTemperature(YearMonth yearMonth) {
+        return averageTemperature(yearMonth.getYear(), yearMonth.getMonthValue());
+    }
+    /// Returns the number of days it rained during a YearMonth.
+    public int rainyDays(YearMonth yearMonth) {
+        return rainyDays(yearMonth.getYear(), yearMonth.getMonthValue());
+    }
+}
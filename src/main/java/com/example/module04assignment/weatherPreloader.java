@@ -0,0 +1,131 @@
+package com.example.module04assignment;
+
+import javafx.application.Platform;
+import javafx.concurrent.Worker;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.prefs.Preferences;
+
+/// This class gets the analytics screen and the most likely file ready while the splash screen is shown.
+///
+/// ## Class overview
+/// When the application starts, the weatherAnalytics.fxml scene is built with its controller and
+/// images in the background, and the file that was opened last time, or the generated file if no
+/// file was opened yet, starts loading in a weatherLoadTask. When the user then picks a file the
+/// splash screen takes the scene that is already built, and if it is the same file the task that
+/// is already done or running, so the first month can be shown right away instead of after
+/// loading the FXML and parsing the file.
+///
+/// ## Details about implementation
+///
+/// The FXML is loaded on a virtual thread, which JavaFX allows for nodes that are not in a scene
+/// yet. The Scene itself has to be made on the JavaFX thread, so it is made there once the FXML is
+/// loaded, and the CSS and the layout of the scene are done right after while nothing else is
+/// happening. The scene and the data can each be taken once, if they are not ready
+/// when the user picks a file they are loaded the usual way instead, the JavaFX thread never waits
+/// for them. The data is only used if the size and last modified time of the file are the same as
+/// when it started loading, otherwise its task is cancelled. The last file is kept with
+/// java.util.prefs, so it is remembered between runs.
+public final class weatherPreloader {
+    private static final String LAST_FILE = "lastFile";
+    private static final Path DEFAULT_FILE = Path.of("src/main/resources/cvs_file_folders/text.csv");
+
+    /// record for a scene that was built ahead of time together with its controller
+    public record analyticsScene(Scene scene, weatherAnalyticsController controller) {}
+
+    private static CompletableFuture<analyticsScene> scene;
+    private static weatherLoadTask dataTask;
+    private static Path dataPath;
+    private static long dataSize;
+    private static long dataModified;
+
+    private weatherPreloader() {
+    }
+    /// Starts building the analytics scene and loading the last file in the background, this is
+    /// called on the JavaFX thread once the splash screen is shown.
+    public static void start() {
+        CompletableFuture<analyticsScene> built = new CompletableFuture<>();
+        scene = built;
+        Thread.ofVirtual().name("weather-preload-scene").start(() -> {
+            try {
+                FXMLLoader loader = new FXMLLoader(weatherPreloader.class.getResource("weatherAnalytics.fxml"));
+                Parent root = loader.load();
+                Platform.runLater(() -> {
+                    try {
+                        Scene analytics = new Scene(root, 1270, 720);
+                        // makes the skins of the controls now, instead of on the first frame of the screen
+                        root.applyCss();
+                        root.layout();
+                        built.complete(new analyticsScene(analytics, loader.getController()));
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                        built.completeExceptionally(e);
+                    }
+                });
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+                built.completeExceptionally(e);
+            }
+        });
+        Path file = lastFile();
+        if (file == null)
+            return;
+        try {
+            dataSize = Files.size(file);
+            dataModified = Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return;
+        }
+        dataPath = file.toAbsolutePath().normalize();
+        dataTask = new weatherLoadTask(file);
+        Thread.ofVirtual().name("weather-preload-data").start(dataTask);
+    }
+    /// Returns the scene that was built ahead of time, or null if it is not ready or was already taken.
+    public static analyticsScene takeScene() {
+        CompletableFuture<analyticsScene> built = scene;
+        scene = null;
+        if (built == null || !built.isDone() || built.isCompletedExceptionally())
+            return null;
+        return built.getNow(null);
+    }
+    /// Returns the task that loaded or is loading a file ahead of time, or null if it loaded another
+    /// file, failed, or the file changed since. A task that is not returned is cancelled.
+    public static weatherLoadTask takeData(Path file) {
+        weatherLoadTask task = dataTask;
+        dataTask = null;
+        if (task == null)
+            return null;
+        boolean usable = task.getState() != Worker.State.FAILED && task.getState() != Worker.State.CANCELLED
+                && file.toAbsolutePath().normalize().equals(dataPath) && unchanged(file);
+        if (!usable) {
+            task.cancel();
+            return null;
+        }
+        return task;
+    }
+
+    private static boolean unchanged(Path file) {
+        try {
+            return Files.size(file) == dataSize && Files.getLastModifiedTime(file).toMillis() == dataModified;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    /// Remembers the file or folder the user opened, so it is loaded ahead of time on the next start.
+    public static void remember(Path file) {
+        Preferences.userNodeForPackage(weatherPreloader.class).put(LAST_FILE, file.toAbsolutePath().normalize().toString());
+    }
+    /// Returns the file that was opened last, or the generated file, or null if neither exists.
+    static Path lastFile() {
+        String last = Preferences.userNodeForPackage(weatherPreloader.class).get(LAST_FILE, null);
+        if (last != null && Files.exists(Path.of(last)))
+            return Path.of(last);
+        return Files.isRegularFile(DEFAULT_FILE) ? DEFAULT_FILE : null;
+    }
+}
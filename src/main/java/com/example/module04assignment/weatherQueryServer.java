@@ -0,0 +1,390 @@
+package com.example.module04assignment;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/// This class answers questions about a weather file, or a folder of station files, over HTTP on this computer.
+///
+/// ## Class overview
+/// It loads the file or folder once and then serves the same summaries the analytics screen shows
+/// as JSON, so other programs like dashboards can use them without opening a window, for example:
+/// <pre>
+/// weatherQueryServer stations --port 8080 --cache 1024
+/// curl "http://localhost:8080/month?year=2020&amp;month=7"
+/// curl "http://localhost:8080/month?year=2020&amp;month=7&amp;station=station-1.csv"
+/// curl "http://localhost:8080/range?from=2020-01-01&amp;to=2020-12-31"
+/// curl "http://localhost:8080/stations?year=2020&amp;month=7"
+/// </pre>
+/// A month is the average temperature, status, rainy days and the spread of the temperature and
+/// humidity of one month, of all the stations together or of one of them. A range is the totals of
+/// the dates between two dates of all the stations, and stations lists every station with its
+/// totals of a month. The .csv files are watched, and rows that are appended to them are added to
+/// the answers while the server runs.
+///
+/// ## Details about implementation
+///
+/// The server is the HttpServer of the JDK, it only listens on the loopback address and every
+/// request is answered on its own virtual thread. The answers come from the weatherMonthTable and
+/// weatherRangeIndex that are built when the data is loaded, so a request never reads the files.
+/// The days themselves are let go of once the range index is built, only the days appended while the
+/// server runs are kept, since they are not in the index. The answers are kept in one snapshot
+/// record that is never changed after it is made: when rows are
+/// appended a new snapshot is made with copies of the month tables and swapped in, so requests can
+/// read it at the same time without locks. The JSON of every answer is kept in a weatherResponseCache
+/// with the most recently used answers, which is invalidated every time the snapshot is swapped.
+/// Wrong parameters are answered with 400 and an error message, which is not cached. Nagle's
+/// algorithm is turned off for the connections of the server, otherwise every answer on a kept alive
+/// connection waits for a delayed acknowledgement and a client gets about 25 answers a second.
+public class weatherQueryServer implements Closeable {
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_CACHE_SIZE = 1024;
+
+    static {
+        // the JDK server writes the headers and the body of an answer separately, and with Nagle's
+        // algorithm on the body waits for the client to acknowledge the headers, about 40 ms a request
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    /// record for everything the answers are made from, it is replaced as a whole and never changed
+    private record snapshot(weatherStationSet stations, weatherRangeIndex rangeIndex, weatherDayStore appended) {}
+
+    /// Thrown for a request with wrong parameters, it is answered with its status and message.
+    private static class badRequest extends RuntimeException {
+        private final int status;
+
+        badRequest(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private final Path path;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final weatherResponseCache cache;
+    private final List<weatherFileWatcher> watchers = new ArrayList<>();
+    private volatile snapshot data;
+
+    /// Loads a file or folder and creates a server for it on a port of the loopback address, it
+    /// answers requests once start is called. Port 0 picks any free port.
+    public weatherQueryServer(Path path, int port, int cacheSize) throws IOException {
+        this.path = path;
+        this.cache = new weatherResponseCache(cacheSize);
+        this.data = load();
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/month", exchange -> respond(exchange, this::month));
+        server.createContext("/range", exchange -> respond(exchange, this::range));
+        server.createContext("/stations", exchange -> respond(exchange, this::stations));
+        server.setExecutor(executor);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: weatherQueryServer <file or folder> [--port n] [--cache n]");
+            System.exit(2);
+        }
+        int port = DEFAULT_PORT;
+        int cacheSize = DEFAULT_CACHE_SIZE;
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[i + 1]);
+                case "--cache" -> cacheSize = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        weatherQueryServer server = new weatherQueryServer(Path.of(args[0]), port, cacheSize);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.err.println("Serving " + args[0] + " on http://localhost:" + server.port() + "/");
+    }
+    /// Starts answering requests and watching the .csv files for appended rows.
+    public void start() throws IOException {
+        server.start();
+        watch();
+    }
+    /// Returns the port the server listens on.
+    public int port() {
+        return server.getAddress().getPort();
+    }
+    /// Stops the server and the watchers.
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+        stopWatching();
+    }
+
+    /// Loads the file or folder into a new snapshot, a single file is a folder of one station. The
+    /// snapshot only keeps the month tables and the range index, not the days of the stations.
+    private snapshot load() throws IOException {
+        weatherStationSet stations;
+        if (Files.isDirectory(path)) {
+            stations = weatherStationSet.load(path);
+        } else {
+            weatherDataSet file = weatherDataSet.load(path);
+            stations = new weatherStationSet(
+                    List.of(new weatherStationSet.station(path.getFileName().toString(), file)), file.months());
+        }
+        return new snapshot(stations.withoutDays(), stations.rangeIndex(), new weatherDayStore());
+    }
+    /// Starts a weatherFileWatcher for every station that is an uncompressed .csv file.
+    private synchronized void watch() throws IOException {
+        Path folder = Files.isDirectory(path) ? path : path.toAbsolutePath().getParent();
+        for (weatherStationSet.station station : data.stations().stations()) {
+            if (!station.name().endsWith(".csv"))
+                continue;
+            String name = station.name();
+            weatherFileWatcher watcher = new weatherFileWatcher(folder.resolve(name), station.data().bytesRead(),
+                    new weatherFileWatcher.appendListener() {
+                        @Override
+                        public void appended(weatherDayStore days) {
+                            addAppendedDays(name, days);
+                        }
+                        @Override
+                        public void replaced() {
+                            reload();
+                        }
+                    });
+            watchers.add(watcher);
+            watcher.start();
+        }
+    }
+
+    private synchronized void stopWatching() {
+        for (weatherFileWatcher watcher : watchers) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        watchers.clear();
+    }
+    /// Makes a new snapshot with the days appended to a station and invalidates the cache. The month
+    /// tables are copied first, since requests may still be reading the old ones.
+    private synchronized void addAppendedDays(String name, weatherDayStore days) {
+        snapshot old = data;
+        List<weatherStationSet.station> stations = new ArrayList<>();
+        for (weatherStationSet.station station : old.stations().stations()) {
+            if (station.name().equals(name)) {
+                weatherMonthTable months = station.data().months().copy();
+                months.addAll(days);
+                weatherDataSet file = station.data();
+                station = new weatherStationSet.station(name, new weatherDataSet(new weatherDayStore(0), months,
+                        file.malformedLines(), file.bytesRead()));
+            }
+            stations.add(station);
+        }
+        weatherMonthTable combined = old.stations().months().copy();
+        combined.addAll(days);
+        weatherDayStore appended = new weatherDayStore(old.appended().size() + days.size());
+        appended.addAll(old.appended());
+        appended.addAll(days);
+        data = new snapshot(new weatherStationSet(List.copyOf(stations), combined), old.rangeIndex(), appended);
+        cache.invalidate();
+    }
+    /// Loads everything again after a file was replaced.
+    private synchronized void reload() {
+        stopWatching();
+        try {
+            data = load();
+            cache.invalidate();
+            watch();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /// Makes the JSON of a request from a snapshot and its query parameters.
+    private interface endpoint {
+        String answer(snapshot data, Map<String, String> query);
+    }
+    /// Answers a request from the cache, or makes the answer and adds it to the cache.
+    private void respond(HttpExchange exchange, endpoint endpoint) throws IOException {
+        long start = System.nanoTime();
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                send(exchange, 405, error("only GET is supported"));
+                return;
+            }
+            String request = exchange.getRequestURI().toString();
+            byte[] response = cache.get(request);
+            if (response == null) {
+                // the generation is read before the data, see weatherResponseCache
+                long generation = cache.generation();
+                try {
+                    response = endpoint.answer(data, query(exchange.getRequestURI().getRawQuery()))
+                            .getBytes(StandardCharsets.UTF_8);
+                } catch (badRequest e) {
+                    send(exchange, e.status, error(e.getMessage()));
+                    return;
+                } catch (RuntimeException e) {
+                    // answers instead of dropping the connection if a query hits a bug
+                    e.printStackTrace();
+                    send(exchange, 500, error("internal error"));
+                    return;
+                }
+                cache.put(request, response, generation);
+            }
+            send(exchange, 200, response);
+        } finally {
+            weatherMetrics.time(weatherMetrics.QUERY_TIME, System.nanoTime() - start);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] error(String message) {
+        return ("{\"error\": \"" + escape(message) + "\"}\n").getBytes(StandardCharsets.UTF_8);
+    }
+    /// Splits a query like year=2020&month=7 into its parameters.
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null)
+            return parameters;
+        for (String parameter : rawQuery.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0)
+                parameters.put(URLDecoder.decode(parameter.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /// GET /month?year=&month=[&station=] the summary of one month, of every station or of one.
+    private String month(snapshot data, Map<String, String> query) {
+        int year = intParameter(query, "year");
+        int month = monthParameter(query);
+        weatherMonthTable months = data.stations().months();
+        String station = query.get("station");
+        if (station != null)
+            months = findStation(data, station).data().months();
+        return "{" + monthJson(months, year, month)
+                + String.format(Locale.ROOT, ", \"temperature\": %s, \"humidity\": %s}\n",
+                distributionJson(months.temperatureStats(year, month)), distributionJson(months.humidityStats(year, month)));
+    }
+    /// GET /range?from=&to= the totals of every station between two dates, both included.
+    private String range(snapshot data, Map<String, String> query) {
+        LocalDate from = dateParameter(query, "from");
+        LocalDate to = dateParameter(query, "to");
+        if (from.isAfter(to))
+            throw new badRequest(400, "from must not be after to");
+        weatherRangeIndex.rangeSummary range = data.rangeIndex().summary(from, to);
+        if (data.appended().size() > 0) {
+            weatherAggregator.columnSummary appended = weatherAggregator.summarize(data.appended(), from, to);
+            range = range.plus(new weatherRangeIndex.rangeSummary(from, to, appended.days(),
+                    appended.averageTemperature(), appended.averageHumidity(), appended.rainyDays()));
+        }
+        return String.format(Locale.ROOT,
+                "{\"from\": \"%s\", \"to\": \"%s\", \"days\": %d, \"averageTemperature\": %s, \"averageHumidity\": %s, \"rainyDays\": %d}\n",
+                from, to, range.days(), number(range.days(), range.averageTemperature()),
+                number(range.days(), range.averageHumidity()), range.rainyDays());
+    }
+    /// GET /stations[?year=&month=] the names of the stations, and their totals of a month if one is given.
+    private String stations(snapshot data, Map<String, String> query) {
+        boolean withMonth = query.containsKey("year") || query.containsKey("month");
+        int year = withMonth ? intParameter(query, "year") : 0;
+        int month = withMonth ? monthParameter(query) : 0;
+        StringBuilder json = new StringBuilder("[");
+        for (weatherStationSet.station station : data.stations().stations()) {
+            if (json.length() > 1)
+                json.append(", ");
+            json.append("{\"station\": \"").append(escape(station.name())).append('"');
+            if (withMonth)
+                json.append(", ").append(monthJson(station.data().months(), year, month));
+            json.append('}');
+        }
+        return json.append("]\n").toString();
+    }
+
+    private static weatherStationSet.station findStation(snapshot data, String name) {
+        for (weatherStationSet.station station : data.stations().stations()) {
+            if (station.name().equals(name))
+                return station;
+        }
+        throw new badRequest(404, "no station named " + name);
+    }
+    /// Builds the fields of a month that the batch analyzer also writes, without the braces. A month
+    /// without days has no average or status, so they are null.
+    private static String monthJson(weatherMonthTable months, int year, int month) {
+        int days = months.dayCount(year, month);
+        double avgTemp = months.averageTemperature(year, month);
+        String status = days == 0 ? "null" : "\"" + weatherAnalyticsController.temperatureStatus.of(avgTemp) + "\"";
+        return String.format(Locale.ROOT,
+                "\"year\": %d, \"month\": \"%s\", \"days\": %d, \"averageTemperature\": %s, \"status\": %s, \"rainyDays\": %d",
+                year, slashScreenController.Months.values()[month - 1], days, number(days, avgTemp), status,
+                months.rainyDays(year, month));
+    }
+    /// Returns an average with three decimals, or null if it is the average of no days, since NaN is not valid JSON.
+    private static String number(int days, double average) {
+        return days == 0 ? "null" : String.format(Locale.ROOT, "%.3f", average);
+    }
+
+    private static String distributionJson(weatherDistribution stats) {
+        if (stats.count() == 0)
+            return "null";
+        return String.format(Locale.ROOT,
+                "{\"min\": %d, \"max\": %d, \"mean\": %.3f, \"standardDeviation\": %.3f, \"median\": %d, \"p90\": %d, \"p99\": %d}",
+                stats.min(), stats.max(), stats.mean(), stats.standardDeviation(), stats.median(),
+                stats.percentile(0.9), stats.percentile(0.99));
+    }
+
+    private static int intParameter(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null)
+            throw new badRequest(400, "missing parameter " + name);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new badRequest(400, name + " must be a number");
+        }
+    }
+
+    private static int monthParameter(Map<String, String> query) {
+        int month = intParameter(query, "month");
+        if (month < 1 || month > 12)
+            throw new badRequest(400, "month must be between 1 and 12");
+        return month;
+    }
+
+    private static LocalDate dateParameter(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null)
+            throw new badRequest(400, "missing parameter " + name);
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new badRequest(400, name + " must be a date like 2020-01-31");
+        }
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
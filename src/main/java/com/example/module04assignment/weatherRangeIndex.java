@@ -0,0 +1,209 @@
+package com.example.module04assignment;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/// This class answers questions about any range of dates, like a heat wave of 10 days or a whole season.
+///
+/// ## Class overview
+/// It is built once from the weatherDayStore of a file, or from the stores of many stations, and
+/// afterward the average temperature, the average humidity and the number of rainy days between
+/// any two dates are found without looking at the days again, for example:
+/// <pre>
+/// weatherRangeIndex index = new weatherRangeIndex(days);
+/// weatherRangeIndex.rangeSummary summer = index.summary(LocalDate.of(2020, 6, 21), LocalDate.of(2020, 9, 22));
+/// </pre>
+///
+/// ## Details about implementation
+///
+/// Every date between the first and the last date of the file gets one slot, numbered by its
+/// epoch day, and the index keeps prefix sums over those slots for the temperature, the humidity,
+/// the number of days and the number of rainy days. Slot i of a prefix sum holds the total of every
+/// date before it, so the total between two dates is
+/// <pre>
+/// sums[to + 1] - sums[from]
+/// </pre>
+/// which makes every range query two array reads per column, however long the range is. Dates
+/// with no data just add nothing, and a date that appears more than once is counted every time,
+/// the same way the month table does it. Dates that do not exist, like February 30, and years
+/// outside of 1 to 9999 are left out of the index.
+public class weatherRangeIndex {
+
+    /// record for the totals of a range of dates, the averages are NaN if there are no days in the range
+    public record rangeSummary(LocalDate from, LocalDate to, int days, double averageTemperature,
+                               double averageHumidity, int rainyDays) {
+        /// Returns the totals of this range and another summary of the same range added together,
+        /// like the days of a file and the days that were appended to it later.
+        public rangeSummary plus(rangeSummary other) {
+            if (other.days == 0)
+                return this;
+            if (days == 0)
+                return other;
+            int total = days + other.days;
+            return new rangeSummary(from, to, total,
+                    (averageTemperature * days + other.averageTemperature * other.days) / total,
+                    (averageHumidity * days + other.averageHumidity * other.days) / total,
+                    rainyDays + other.rainyDays);
+        }
+    }
+
+    // epoch day of the first slot, and the number of slots
+    private final long firstDay;
+    private final int span;
+    private final long[] temperatureSums;
+    private final long[] humiditySums;
+    private final int[] dayCounts;
+    private final int[] rainyDays;
+
+    /// Builds the prefix sums of every day of one or more stores, this takes three passes over the dates.
+    public weatherRangeIndex(weatherDayStore... stores) {
+        // the first pass finds the years, so the epoch day of every month can be looked up after
+        int minYear = Integer.MAX_VALUE;
+        int maxYear = Integer.MIN_VALUE;
+        for (weatherDayStore days : stores) {
+            for (int i = 0; i < days.size(); i++) {
+                int year = days.year(i);
+                if (year >= weatherDayStore.MIN_YEAR && year <= weatherDayStore.MAX_YEAR) {
+                    minYear = Math.min(minYear, year);
+                    maxYear = Math.max(maxYear, year);
+                }
+            }
+        }
+        long[] monthStarts = new long[minYear > maxYear ? 0 : (maxYear - minYear + 1) * 12];
+        int[] monthLengths = new int[monthStarts.length];
+        for (int slot = 0; slot < monthStarts.length; slot++) {
+            YearMonth yearMonth = YearMonth.of(minYear + slot / 12, slot % 12 + 1);
+            monthStarts[slot] = yearMonth.atDay(1).toEpochDay();
+            monthLengths[slot] = yearMonth.lengthOfMonth();
+        }
+        // the second pass finds the first and last date that really exist
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (weatherDayStore days : stores) {
+            for (int i = 0; i < days.size(); i++) {
+                long epochDay = epochDay(days, i, minYear, monthStarts, monthLengths);
+                if (epochDay != Long.MIN_VALUE) {
+                    first = Math.min(first, epochDay);
+                    last = Math.max(last, epochDay);
+                }
+            }
+        }
+        firstDay = first > last ? 0 : first;
+        span = first > last ? 0 : (int) (last - first + 1);
+        temperatureSums = new long[span + 1];
+        humiditySums = new long[span + 1];
+        dayCounts = new int[span + 1];
+        rainyDays = new int[span + 1];
+        // the third pass adds every day to the slot after its own, then the slots are added up
+        for (weatherDayStore days : stores) {
+            for (int i = 0; i < days.size(); i++) {
+                long epochDay = epochDay(days, i, minYear, monthStarts, monthLengths);
+                if (epochDay == Long.MIN_VALUE)
+                    continue;
+                int slot = (int) (epochDay - firstDay) + 1;
+                temperatureSums[slot] += days.temperature(i);
+                humiditySums[slot] += days.humidity(i);
+                dayCounts[slot]++;
+                rainyDays[slot] += days.rained(i);
+            }
+        }
+        for (int slot = 1; slot <= span; slot++) {
+            temperatureSums[slot] += temperatureSums[slot - 1];
+            humiditySums[slot] += humiditySums[slot - 1];
+            dayCounts[slot] += dayCounts[slot - 1];
+            rainyDays[slot] += rainyDays[slot - 1];
+        }
+    }
+    private weatherRangeIndex(long firstDay, int span) {
+        this.firstDay = firstDay;
+        this.span = span;
+        temperatureSums = new long[span + 1];
+        humiditySums = new long[span + 1];
+        dayCounts = new int[span + 1];
+        rainyDays = new int[span + 1];
+    }
+    /// Writes the prefix sums, so weatherSummaryCache can read them back with read.
+    void write(DataOutputStream out) throws IOException {
+        out.writeLong(firstDay);
+        out.writeInt(span);
+        for (long sum : temperatureSums)
+            out.writeLong(sum);
+        for (long sum : humiditySums)
+            out.writeLong(sum);
+        for (int count : dayCounts)
+            out.writeInt(count);
+        for (int count : rainyDays)
+            out.writeInt(count);
+    }
+    /// Reads an index that was written with write, the arrays are copied out of the buffer in bulk.
+    static weatherRangeIndex read(ByteBuffer in) {
+        weatherRangeIndex index = new weatherRangeIndex(in.getLong(), in.getInt());
+        int slots = index.span + 1;
+        in.asLongBuffer().get(index.temperatureSums);
+        in.position(in.position() + slots * Long.BYTES);
+        in.asLongBuffer().get(index.humiditySums);
+        in.position(in.position() + slots * Long.BYTES);
+        in.asIntBuffer().get(index.dayCounts);
+        in.position(in.position() + slots * Integer.BYTES);
+        in.asIntBuffer().get(index.rainyDays);
+        in.position(in.position() + slots * Integer.BYTES);
+        return index;
+    }
+    /// Returns the epoch day of a day of the store, or Long.MIN_VALUE if its date does not exist.
+    private static long epochDay(weatherDayStore days, int index, int minYear, long[] monthStarts, int[] monthLengths) {
+        int year = days.year(index);
+        if (year < weatherDayStore.MIN_YEAR || year > weatherDayStore.MAX_YEAR)
+            return Long.MIN_VALUE;
+        int slot = (year - minYear) * 12 + days.month(index) - 1;
+        int day = days.day(index);
+        if (day > monthLengths[slot])
+            return Long.MIN_VALUE;
+        return monthStarts[slot] + day - 1;
+    }
+    /// Returns the number of dates between the first and the last date of the index, both included.
+    public int slotCount() {
+        return span;
+    }
+    /// Returns the epoch day of the first date of the index.
+    public long firstEpochDay() {
+        return firstDay;
+    }
+    /// Returns the number of days recorded for the date of a slot.
+    public int dayCount(int slot) {
+        return dayCounts[slot + 1] - dayCounts[slot];
+    }
+    /// Returns the average temperature of the date of a slot, or NaN if the date has no days.
+    public double temperature(int slot) {
+        return (double) (temperatureSums[slot + 1] - temperatureSums[slot]) / dayCount(slot);
+    }
+    /// Returns the average humidity of the date of a slot, or NaN if the date has no days.
+    public double humidity(int slot) {
+        return (double) (humiditySums[slot + 1] - humiditySums[slot]) / dayCount(slot);
+    }
+    /// Returns the first date of the index, or null if the index has no days.
+    public LocalDate firstDate() {
+        return span == 0 ? null : LocalDate.ofEpochDay(firstDay);
+    }
+    /// Returns the last date of the index, or null if the index has no days.
+    public LocalDate lastDate() {
+        return span == 0 ? null : LocalDate.ofEpochDay(firstDay + span - 1);
+    }
+    /// Returns the totals of every day between from and to, both included. The parts of the
+    /// range before the first or after the last date of the index have no days.
+    public rangeSummary summary(LocalDate from, LocalDate to) {
+        long start = Math.max(from.toEpochDay() - firstDay, 0);
+        long end = Math.min(to.toEpochDay() - firstDay + 1, span);
+        if (start >= end)
+            return new rangeSummary(from, to, 0, Double.NaN, Double.NaN, 0);
+        int i = (int) start;
+        int j = (int) end;
+        int days = dayCounts[j] - dayCounts[i];
+        return new rangeSummary(from, to, days,
+                (double) (temperatureSums[j] - temperatureSums[i]) / days,
+                (double) (humiditySums[j] - humiditySums[i]) / days,
+                rainyDays[j] - rainyDays[i]);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.module04assignment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/// This class keeps the most recently used responses of the weatherQueryServer, already turned into bytes.
+///
+/// ## Class overview
+/// A response is kept under the path and query of its request, so asking for the same month again
+/// sends the same bytes without looking anything up or formatting any JSON. The cache holds at
+/// most a fixed number of responses and forgets the one that was used the longest time ago when
+/// it is full. When the data changes the whole cache is invalidated.
+///
+/// ## Details about implementation
+///
+/// It is a LinkedHashMap in access order with removeEldestEntry, which is the usual way to make an
+/// LRU cache in Java, and every method locks the map since the server answers requests on many
+/// virtual threads at the same time. The lock is only held to look up or add one entry, never while
+/// a response is made. Every invalidation starts a new generation, and a response is only added if
+/// it was made in the current generation, so a response made from the old data while the data was
+/// changing is never kept after the invalidation.
+public class weatherResponseCache {
+    private final Map<String, byte[]> responses;
+    private long generation;
+
+    public weatherResponseCache(int capacity) {
+        this.responses = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+    /// Returns the response of a request, or null if it is not in the cache. The hits and misses
+    /// are counted in weatherMetrics.
+    public byte[] get(String request) {
+        byte[] response;
+        synchronized (this) {
+            response = responses.get(request);
+        }
+        weatherMetrics.add(response == null ? weatherMetrics.QUERY_CACHE_MISSES : weatherMetrics.QUERY_CACHE_HITS, 1);
+        return response;
+    }
+    /// Returns the current generation, it should be read before the data a response is made from.
+    public synchronized long generation() {
+        return generation;
+    }
+    /// Adds a response that was made in the given generation, it is dropped if the cache was invalidated since.
+    public synchronized void put(String request, byte[] response, long generation) {
+        if (generation == this.generation)
+            responses.put(request, response);
+    }
+    /// Forgets every response, this is called when the data changes.
+    public synchronized void invalidate() {
+        generation++;
+        responses.clear();
+    }
+    /// Returns the number of responses in the cache.
+    public synchronized int size() {
+        return responses.size();
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.module04assignment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/// record for the weather files of every station in a folder, loaded at the same time and kept in memory.
+///
+/// ## Class overview
+/// Every .csv, .csv.gz or .wdb file of the folder is one station, named after its file. The record keeps
+/// the weatherDataSet of every station, so each station can still be looked at on its own, and a
+/// month table with the totals of all the stations added together for the combined view.
+///
+/// ## Details about implementation
+///
+/// The files of the folder are listed with listFolder, which the weatherBatchAnalyzer uses as well.
+/// Every station is loaded by its own fork join task in a pool of the class, and the loader of a
+/// .csv file forks its chunks from inside that task into the same pool. Threads that run out of
+/// work steal chunks or whole stations from the others, so a folder with one huge station and many
+/// small ones still keeps every core busy. The pool is not the common pool since the tasks read
+/// files, and a .csv.gz station waits for the threads of its weatherGzipLoader, so that wait is
+/// done in a ForkJoinPool.ManagedBlocker and the pool starts another thread meanwhile. The tasks are
+/// joined in the order of the file names, which keeps the combined totals and the order of the
+/// stations the same on every run.
+public record weatherStationSet(List<station> stations, weatherMonthTable months) {
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("weather-station-" + thread.getPoolIndex());
+        return thread;
+    }, null, false);
+
+    /// record for one station of the folder, its name is the name of its file
+    public record station(String name, weatherDataSet data) {}
+
+    /// Receives the progress of a folder load, it is called on the thread that called load.
+    public interface stationListener {
+        /// Called after every station with a copy of the combined month totals so far.
+        void stationLoaded(station station, int loaded, int total, weatherMonthTable partial);
+        /// Returning true stops the load before the next station.
+        default boolean isCancelled() {
+            return false;
+        }
+    }
+
+    /// Loads every station of a folder.
+    public static weatherStationSet load(Path folder) throws IOException {
+        return load(folder, null);
+    }
+    /// Loads every station of a folder and tells the listener about every station that is done.
+    /// Throws a CancellationException if the listener cancels the load.
+    public static weatherStationSet load(Path folder, stationListener listener) throws IOException {
+        List<Path> files = listFolder(folder);
+        List<stationTask> tasks = new ArrayList<>();
+        for (Path file : files) {
+            stationTask task = new stationTask(file);
+            POOL.execute(task);
+            tasks.add(task);
+        }
+        List<station> stations = new ArrayList<>();
+        weatherMonthTable months = new weatherMonthTable();
+        try {
+            for (stationTask task : tasks) {
+                if (listener != null && listener.isCancelled()) {
+                    for (stationTask other : tasks)
+                        other.cancel(false);
+                    throw new CancellationException("Loading " + folder + " was cancelled");
+                }
+                station station = new station(task.file.getFileName().toString(), task.join());
+                stations.add(station);
+                months.merge(station.data().months());
+                if (listener != null)
+                    listener.stationLoaded(station, stations.size(), tasks.size(), months.copy());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new weatherStationSet(List.copyOf(stations), months);
+    }
+    /// Returns the weather files directly inside a folder sorted by name, without any glob matching.
+    public static List<Path> listFolder(Path folder) throws IOException {
+        try (Stream<Path> paths = Files.list(folder)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(weatherStationSet::isWeatherFile)
+                    .sorted()
+                    .toList();
+        }
+    }
+    /// Returns true if a file is a .csv, .csv.gz or .wdb weather file.
+    public static boolean isWeatherFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".csv") || name.endsWith(".csv" + weatherGzipLoader.EXTENSION)
+                || name.endsWith(weatherBinaryFormat.EXTENSION);
+    }
+    /// Returns the same stations with empty day stores, once the range index of their days is built.
+    public weatherStationSet withoutDays() {
+        List<station> kept = new ArrayList<>();
+        for (station station : stations)
+            kept.add(new station(station.name(), station.data().withoutDays()));
+        return new weatherStationSet(List.copyOf(kept), months);
+    }
+    /// Returns the number of bytes that were loaded from all the stations.
+    public long bytesRead() {
+        long bytes = 0;
+        for (station station : stations)
+            bytes += station.data().bytesRead();
+        return bytes;
+    }
+    /// Returns the number of rows of all the stations together.
+    public long rowsParsed() {
+        long rows = 0;
+        for (station station : stations)
+            rows += station.data().days().size();
+        return rows;
+    }
+    /// Returns the combined totals as a data set, its day store is empty since the days stay with their stations.
+    public weatherDataSet combined() {
+        long malformedLines = 0;
+        for (station station : stations)
+            malformedLines += station.data().malformedLines();
+        return new weatherDataSet(new weatherDayStore(0), months, malformedLines, bytesRead());
+    }
+    /// Builds a range index over the days of every station.
+    public weatherRangeIndex rangeIndex() {
+        weatherDayStore[] stores = new weatherDayStore[stations.size()];
+        for (int i = 0; i < stores.length; i++)
+            stores[i] = stations.get(i).data().days();
+        return new weatherRangeIndex(stores);
+    }
+
+    /// Fork join task that loads the file of one station.
+    private static class stationTask extends RecursiveTask<weatherDataSet> {
+        private final Path file;
+
+        stationTask(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        protected weatherDataSet compute() {
+            try {
+                if (!file.getFileName().toString().endsWith(weatherGzipLoader.EXTENSION))
+                    return weatherDataSet.load(file);
+                gzipBlocker blocker = new gzipBlocker(file);
+                ForkJoinPool.managedBlock(blocker);
+                return blocker.data;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Loading " + file + " was interrupted");
+            }
+        }
+    }
+
+    /// Loads a .csv.gz station, this thread only waits for the threads of the gzip pipeline meanwhile.
+    private static class gzipBlocker implements ForkJoinPool.ManagedBlocker {
+        private final Path file;
+        private weatherDataSet data;
+
+        gzipBlocker(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        public boolean block() {
+            try {
+                data = new weatherGzipLoader(file).load();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return data != null;
+        }
+    }
+}
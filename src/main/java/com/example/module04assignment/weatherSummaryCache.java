@@ -0,0 +1,152 @@
+package com.example.module04assignment;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/// This class keeps the month totals and the range index of a loaded file in a small sidecar file,
+/// so opening the same file again does not parse it again.
+///
+/// ## Class overview
+/// After a file is loaded its weatherMonthTable and weatherRangeIndex are written to a sidecar in
+/// the cache folder. The next time the file is opened, the sidecar is used instead of the file if
+/// the path, the size, the last modified time and a hash of the content all still match, which
+/// takes milliseconds instead of seconds for a large file. The data set read from a sidecar has an
+/// empty day store, since the screen only needs the totals and the index.
+///
+/// ## Details about implementation
+///
+/// The cache folder is .weather-analyzer/cache in the home folder, or the folder in the
+/// weather.cacheDir system property, and the sidecar of a file is named after the hash of its path.
+/// The layout of a sidecar is:
+/// <pre>
+/// header: int magic "WSC1", short version, short unused,
+///         long size, long last modified millis, long content hash, int path length, path in UTF-8,
+///         long bytes read, long malformed lines
+/// body:   the month table and then the range index, see their write methods
+/// </pre>
+/// The content hash is a CRC32C of the first block of 4 KB, of 15 more blocks spread evenly through
+/// the file and of its last block, so checking it reads 68 KB at most however big the file is and
+/// opening a file of many GB from its sidecar still takes milliseconds. Together with the size and
+/// the last modified time it catches a file that was rewritten or appended to, but not a change in
+/// the middle of the file outside of the blocks that keeps the size and the time. Starting java
+/// with -Dweather.fullContentHash=true hashes every byte instead, a sidecar written with the other
+/// kind of hash then just does not match and is written again. The sidecar is memory mapped when it
+/// is read, and it is written to a temporary file first and then moved, so a sidecar is never read
+/// half written.
+public class weatherSummaryCache {
+    private static final int MAGIC = 0x57534331; // "WSC1"
+    private static final short VERSION = 1;
+    private static final int SAMPLE_BLOCKS = 16;
+    private static final int SAMPLE_SIZE = 4096;
+    private static final long HASH_PART = 1 << 26;
+    private static final boolean FULL_HASH = Boolean.getBoolean("weather.fullContentHash");
+
+    /// record for what a sidecar holds, the data set has an empty day store
+    public record entry(weatherDataSet data, weatherRangeIndex rangeIndex) {}
+
+    private weatherSummaryCache() {
+    }
+    /// Returns the folder the sidecars are kept in.
+    static Path cacheFolder() {
+        String folder = System.getProperty("weather.cacheDir");
+        if (folder != null)
+            return Path.of(folder);
+        return Path.of(System.getProperty("user.home"), ".weather-analyzer", "cache");
+    }
+    /// Returns the sidecar of a file.
+    static Path sidecarFor(Path file) {
+        String key = file.toAbsolutePath().normalize().toString();
+        CRC32C crc = new CRC32C();
+        crc.update(key.getBytes(StandardCharsets.UTF_8));
+        return cacheFolder().resolve(String.format("%08x-%s.wsc", crc.getValue(), file.getFileName()));
+    }
+    /// Returns the totals and index of a file from its sidecar, or null if there is no sidecar or
+    /// the file changed since the sidecar was written.
+    public static entry read(Path file) throws IOException {
+        Path sidecar = sidecarFor(file);
+        if (!Files.isRegularFile(sidecar) || !Files.isRegularFile(file))
+            return null;
+        MappedByteBuffer in;
+        try (FileChannel channel = FileChannel.open(sidecar, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (in.limit() < 8 || in.getInt() != MAGIC || in.getShort() != VERSION)
+            return null;
+        in.getShort();
+        long size = in.getLong();
+        long modified = in.getLong();
+        long hash = in.getLong();
+        byte[] path = new byte[in.getInt()];
+        in.get(path);
+        if (size != Files.size(file) || modified != Files.getLastModifiedTime(file).toMillis()
+                || !new String(path, StandardCharsets.UTF_8).equals(file.toAbsolutePath().normalize().toString())
+                || hash != contentHash(file))
+            return null;
+        long bytesRead = in.getLong();
+        long malformedLines = in.getLong();
+        weatherMonthTable months = weatherMonthTable.read(in);
+        weatherRangeIndex rangeIndex = weatherRangeIndex.read(in);
+        return new entry(new weatherDataSet(new weatherDayStore(0), months, malformedLines, bytesRead), rangeIndex);
+    }
+    /// Writes the sidecar of a file that was just loaded. The key is taken from the file as it is now,
+    /// so the data set should be the one that was loaded from it.
+    public static void write(Path file, weatherDataSet data, weatherRangeIndex rangeIndex) throws IOException {
+        Path sidecar = sidecarFor(file);
+        Files.createDirectories(sidecar.getParent());
+        Path temporary = Files.createTempFile(sidecar.getParent(), sidecar.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            byte[] path = file.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(0);
+            out.writeLong(Files.size(file));
+            out.writeLong(Files.getLastModifiedTime(file).toMillis());
+            out.writeLong(contentHash(file));
+            out.writeInt(path.length);
+            out.write(path);
+            out.writeLong(data.bytesRead());
+            out.writeLong(data.malformedLines());
+            data.months().write(out);
+            rangeIndex.write(out);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    /// Computes the CRC32C of the sampled blocks of a file, or of all of it if the full hash is
+    /// turned on, see the class overview.
+    static long contentHash(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (FULL_HASH) {
+                for (long position = 0; position < size; position += HASH_PART)
+                    crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(HASH_PART, size - position)));
+                return crc.getValue();
+            }
+            ByteBuffer block = ByteBuffer.allocate(SAMPLE_SIZE);
+            for (int i = 0; i <= SAMPLE_BLOCKS; i++) {
+                // block 0 is the head of the file, and the last sample is its tail, where new rows are appended
+                long position = i == SAMPLE_BLOCKS ? Math.max(0, size - SAMPLE_SIZE) : size / SAMPLE_BLOCKS * i;
+                block.clear();
+                int read;
+                do {
+                    read = channel.read(block, position + block.position());
+                } while (read > 0 && block.hasRemaining());
+                crc.update(block.flip());
+            }
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.module04assignment;
+
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.input.MouseButton;
+import javafx.util.StringConverter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/// This class fills the line chart of the daily temperature and humidity on the analytics screen.
+///
+/// ## Class overview
+/// The chart shows the average temperature and humidity of every date of a weatherRangeIndex. The
+/// mouse wheel zooms in and out around the mouse, dragging moves the dates left and right, and a
+/// double click shows every date again. Only the dates that are visible are drawn, and never more
+/// points than the chart is wide in pixels.
+///
+/// ## Details about implementation
+///
+/// The x axis is the epoch day of every date. Every time the visible dates change, the daily values
+/// are read from the prefix sums of the index into plain double arrays and the weatherDownsampler
+/// picks one point per pixel out of them, so the chart always gets about the same number of points
+/// however many years the file has. The arrays are made once for every file and reused for every
+/// zoom and pan.
+public class weatherTemperatureChart {
+    private static final double ZOOM_STEP = 1.25;
+
+    private final NumberAxis xAxis;
+    private final XYChart.Series<Number, Number> temperatureSeries = new XYChart.Series<>();
+    private final XYChart.Series<Number, Number> humiditySeries = new XYChart.Series<>();
+    private weatherRangeIndex index;
+    // the x value and daily averages of the visible dates that have data
+    private double[] x = new double[0];
+    private double[] temperatures = new double[0];
+    private double[] humidities = new double[0];
+    private double dragStart;
+
+    public weatherTemperatureChart(LineChart<Number, Number> chart) {
+        this.xAxis = (NumberAxis) chart.getXAxis();
+        temperatureSeries.setName("Temperature (°F)");
+        humiditySeries.setName("Humidity");
+        chart.getData().setAll(List.of(temperatureSeries, humiditySeries));
+        chart.setAnimated(false);
+        chart.setCreateSymbols(false);
+        xAxis.setAutoRanging(false);
+        xAxis.setTickLabelFormatter(new StringConverter<>() {
+            @Override
+            public String toString(Number epochDay) {
+                return LocalDate.ofEpochDay(epochDay.longValue()).toString();
+            }
+            @Override
+            public Number fromString(String date) {
+                return LocalDate.parse(date).toEpochDay();
+            }
+        });
+        xAxis.widthProperty().addListener((observable, oldWidth, width) -> resample());
+        chart.setOnScroll(event -> {
+            if (index == null || event.getDeltaY() == 0)
+                return;
+            double mouse = xAxis.getValueForDisplay(xAxis.sceneToLocal(event.getSceneX(), event.getSceneY()).getX()).doubleValue();
+            double factor = event.getDeltaY() > 0 ? 1 / ZOOM_STEP : ZOOM_STEP;
+            showDates(mouse - (mouse - xAxis.getLowerBound()) * factor, mouse + (xAxis.getUpperBound() - mouse) * factor);
+        });
+        chart.setOnMousePressed(event -> dragStart = event.getX());
+        chart.setOnMouseDragged(event -> {
+            if (index == null || xAxis.getWidth() == 0)
+                return;
+            double days = (dragStart - event.getX()) * (xAxis.getUpperBound() - xAxis.getLowerBound()) / xAxis.getWidth();
+            dragStart = event.getX();
+            showDates(xAxis.getLowerBound() + days, xAxis.getUpperBound() + days);
+        });
+        chart.setOnMouseClicked(event -> {
+            if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2)
+                showAll();
+        });
+    }
+    /// Shows every date of an index in the chart.
+    public void show(weatherRangeIndex index) {
+        this.index = index;
+        x = new double[index.slotCount()];
+        temperatures = new double[index.slotCount()];
+        humidities = new double[index.slotCount()];
+        showAll();
+    }
+
+    private void showAll() {
+        if (index == null)
+            return;
+        showDates(index.firstEpochDay(), index.firstEpochDay() + Math.max(index.slotCount() - 1, 1));
+    }
+    /// Moves the x axis to the dates between lower and upper, kept inside the dates of the index.
+    private void showDates(double lower, double upper) {
+        double first = index.firstEpochDay();
+        double last = first + Math.max(index.slotCount() - 1, 1);
+        double width = Math.clamp(upper - lower, 1, last - first);
+        lower = Math.clamp(lower, first, last - width);
+        xAxis.setLowerBound(lower);
+        xAxis.setUpperBound(lower + width);
+        xAxis.setTickUnit(Math.max(1, width / 8));
+        resample();
+    }
+    /// Reads the visible dates from the index and draws one point per pixel of the chart.
+    private void resample() {
+        if (index == null)
+            return;
+        if (index.slotCount() == 0) {
+            temperatureSeries.getData().clear();
+            humiditySeries.getData().clear();
+            return;
+        }
+        int from = (int) Math.max(0, Math.floor(xAxis.getLowerBound() - index.firstEpochDay()));
+        int to = (int) Math.min(index.slotCount() - 1, Math.ceil(xAxis.getUpperBound() - index.firstEpochDay()));
+        int count = 0;
+        for (int slot = from; slot <= to; slot++) {
+            if (index.dayCount(slot) == 0)
+                continue;
+            x[count] = index.firstEpochDay() + slot;
+            temperatures[count] = index.temperature(slot);
+            humidities[count] = index.humidity(slot);
+            count++;
+        }
+        int pixels = Math.max(3, (int) xAxis.getWidth());
+        temperatureSeries.getData().setAll(points(weatherDownsampler.largestTriangleThreeBuckets(x, temperatures, count, pixels), temperatures));
+        humiditySeries.getData().setAll(points(weatherDownsampler.largestTriangleThreeBuckets(x, humidities, count, pixels), humidities));
+    }
+
+    private List<XYChart.Data<Number, Number>> points(int[] picked, double[] y) {
+        List<XYChart.Data<Number, Number>> points = new ArrayList<>(picked.length);
+        for (int i : picked)
+            points.add(new XYChart.Data<>(x[i], y[i]));
+        return points;
+    }
+}
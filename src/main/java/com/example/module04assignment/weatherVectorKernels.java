@@ -0,0 +1,130 @@
+package com.example.module04assignment;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/// This class has the Vector API version of the weatherAggregator loop.
+///
+/// ## Class overview
+/// It is only loaded by weatherAggregator when the jdk.incubator.vector module is present, see
+/// there for how it is turned on and off. It returns the same columnSummary as the scalar loop.
+///
+/// ## Details about implementation
+///
+/// The columns have different sizes, so one step of the loop reads as many days as fit in a byte
+/// vector, which is 32 days on a CPU with 256 bit vectors. The humidities are read as one byte
+/// vector, the temperatures as two short vectors and the dates as four int vectors, and the bytes
+/// and shorts are widened to ints one part at a time. For every part the dates are compared with
+/// the first and last date to get a mask of the days inside them, and only those lanes are added to
+/// the sums, minimums and maximums. The rain bits of the part are read straight from the word of
+/// the rain column as a mask, since a part never crosses a word. The int sums of the lanes are moved
+/// to long totals every so often so they can not overflow, one lane at a time since the lanes
+/// added together can be more than an int. The days left at the end that do not fill a whole step
+/// are added one at a time.
+final class weatherVectorKernels {
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    // steps between moving the int sums into the long totals, four parts of at most 2^15 are
+    // added to a lane every step, so it stays below 2^29
+    private static final int STEPS_PER_FLUSH = 1 << 12;
+
+    private weatherVectorKernels() {
+    }
+
+    static weatherAggregator.columnSummary summarize(weatherDayStore days, int fromDate, int toDate) {
+        int[] dates = days.dateColumn();
+        short[] temperatures = days.temperatureColumn();
+        byte[] humidities = days.humidityColumn();
+        long[] rained = days.rainColumn();
+        int size = days.size();
+        int step = BYTES.length();
+        int ints = INTS.length();
+        int bound = BYTES.loopBound(size);
+
+        IntVector from = IntVector.broadcast(INTS, fromDate);
+        IntVector to = IntVector.broadcast(INTS, toDate);
+        IntVector zero = IntVector.zero(INTS);
+        IntVector temperatureSums = zero;
+        IntVector humiditySums = zero;
+        IntVector minTemperatures = IntVector.broadcast(INTS, Integer.MAX_VALUE);
+        IntVector maxTemperatures = IntVector.broadcast(INTS, Integer.MIN_VALUE);
+        IntVector minHumidities = minTemperatures;
+        IntVector maxHumidities = maxTemperatures;
+        long temperatureSum = 0;
+        long humiditySum = 0;
+        int count = 0;
+        int rainyDays = 0;
+        int steps = 0;
+
+        for (int i = 0; i < bound; i += step) {
+            ByteVector humidityBytes = ByteVector.fromArray(BYTES, humidities, i);
+            ShortVector lowTemperatures = ShortVector.fromArray(SHORTS, temperatures, i);
+            ShortVector highTemperatures = ShortVector.fromArray(SHORTS, temperatures, i + SHORTS.length());
+            for (int part = 0; part < step / ints; part++) {
+                int start = i + part * ints;
+                IntVector date = IntVector.fromArray(INTS, dates, start);
+                VectorMask<Integer> inside = date.compare(VectorOperators.GE, from).and(date.compare(VectorOperators.LE, to));
+                if (!inside.anyTrue())
+                    continue;
+                IntVector temperature = (IntVector) (part * ints < SHORTS.length() ? lowTemperatures : highTemperatures)
+                        .convertShape(VectorOperators.S2I, INTS, part % (SHORTS.length() / ints));
+                IntVector humidity = (IntVector) humidityBytes.convertShape(VectorOperators.B2I, INTS, part);
+                temperatureSums = temperatureSums.add(temperature, inside);
+                minTemperatures = minTemperatures.lanewise(VectorOperators.MIN, temperature, inside);
+                maxTemperatures = maxTemperatures.lanewise(VectorOperators.MAX, temperature, inside);
+                humiditySums = humiditySums.add(humidity, inside);
+                minHumidities = minHumidities.lanewise(VectorOperators.MIN, humidity, inside);
+                maxHumidities = maxHumidities.lanewise(VectorOperators.MAX, humidity, inside);
+                count += inside.trueCount();
+                VectorMask<Integer> rain = VectorMask.fromLong(INTS, rained[start >>> 6] >>> start);
+                rainyDays += rain.and(inside).trueCount();
+            }
+            if (++steps == STEPS_PER_FLUSH) {
+                temperatureSum += sumLanes(temperatureSums);
+                humiditySum += sumLanes(humiditySums);
+                temperatureSums = zero;
+                humiditySums = zero;
+                steps = 0;
+            }
+        }
+        temperatureSum += sumLanes(temperatureSums);
+        humiditySum += sumLanes(humiditySums);
+        int minTemperature = minTemperatures.reduceLanes(VectorOperators.MIN);
+        int maxTemperature = maxTemperatures.reduceLanes(VectorOperators.MAX);
+        int minHumidity = minHumidities.reduceLanes(VectorOperators.MIN);
+        int maxHumidity = maxHumidities.reduceLanes(VectorOperators.MAX);
+
+        for (int i = bound; i < size; i++) {
+            int date = dates[i];
+            if (date < fromDate || date > toDate)
+                continue;
+            int temperature = temperatures[i];
+            int humidity = humidities[i];
+            count++;
+            temperatureSum += temperature;
+            minTemperature = Math.min(minTemperature, temperature);
+            maxTemperature = Math.max(maxTemperature, temperature);
+            humiditySum += humidity;
+            minHumidity = Math.min(minHumidity, humidity);
+            maxHumidity = Math.max(maxHumidity, humidity);
+            rainyDays += (int) (rained[i >>> 6] >>> i) & 1;
+        }
+        if (count == 0)
+            return weatherAggregator.columnSummary.EMPTY;
+        return new weatherAggregator.columnSummary(count, temperatureSum, minTemperature, maxTemperature,
+                humiditySum, minHumidity, maxHumidity, rainyDays);
+    }
+    /// Adds up the lanes as longs. reduceLanesToLong can not be used for this, it adds the lanes as
+    /// ints and only then widens the result, so lanes of up to 2^29 would overflow.
+    private static long sumLanes(IntVector sums) {
+        long sum = 0;
+        for (int lane = 0; lane < sums.length(); lane++)
+            sum += sums.lane(lane);
+        return sum;
+    }
+}
@@ -2,6 +2,10 @@ module com.example.module04assignment {
     requires javafx.controls;
     requires javafx.fxml;
     requires java.desktop;
+    requires jdk.jfr;
+    requires java.prefs;
+    requires jdk.httpserver;
+    requires static jdk.incubator.vector;
 
 
     opens com.example.module04assignment to javafx.fxml;
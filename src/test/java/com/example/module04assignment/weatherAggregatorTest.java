@@ -0,0 +1,80 @@
+package com.example.module04assignment;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/// Tests that the Vector API kernels of weatherAggregator give the same totals as the scalar loop.
+/// The tests are run with --add-modules jdk.incubator.vector, see the surefire plugin in the pom.
+class weatherAggregatorTest {
+    /// Returns a store of random days between 2000 and 2009, in random order.
+    private static weatherDayStore randomStore(Random random, int size) {
+        weatherDayStore days = new weatherDayStore(random.nextInt(size + 1));
+        for (int i = 0; i < size; i++) {
+            days.add(2000 + random.nextInt(10), 1 + random.nextInt(12), 1 + random.nextInt(31),
+                    random.nextInt(Short.MAX_VALUE * 2 + 2) + Short.MIN_VALUE, random.nextInt(256) + Byte.MIN_VALUE,
+                    random.nextInt(2));
+        }
+        return days;
+    }
+
+    private static void assertSameTotals(weatherDayStore days, int from, int to) {
+        assertEquals(weatherAggregator.scalar(days, from, to), weatherVectorKernels.summarize(days, from, to),
+                days.size() + " days from " + from + " to " + to);
+    }
+
+    @Test
+    void vectorMatchesScalarForSizesThatAreNotWholeVectors() {
+        Random random = new Random(21);
+        int[] sizes = {1, 7, 31, 33, 63, 64, 65, 127, 129, 1000, 4099, 65_537};
+        for (int size : sizes) {
+            weatherDayStore days = randomStore(random, size);
+            assertSameTotals(days, weatherDayStore.packDate(2000, 1, 1), weatherDayStore.packDate(2009, 12, 31));
+            assertSameTotals(days, weatherDayStore.packDate(2004, 2, 1), weatherDayStore.packDate(2004, 2, 31));
+            assertSameTotals(days, weatherDayStore.packDate(2003, 7, 9), weatherDayStore.packDate(2003, 7, 9));
+            assertSameTotals(days, weatherDayStore.packDate(1990, 1, 1), weatherDayStore.packDate(1990, 12, 31));
+            for (int i = 0; i < 20; i++) {
+                int from = days.date(random.nextInt(size));
+                int to = days.date(random.nextInt(size));
+                assertSameTotals(days, Math.min(from, to), Math.max(from, to));
+            }
+        }
+    }
+
+    @Test
+    void vectorMatchesScalarPastTheFlushOfTheIntSums() {
+        // more steps than STEPS_PER_FLUSH with the largest temperatures, so an int lane would overflow
+        Random random = new Random(22);
+        weatherDayStore days = new weatherDayStore();
+        for (int i = 0; i < 1_000_003; i++)
+            days.add(2020, 1 + random.nextInt(12), 1 + random.nextInt(28), Short.MAX_VALUE - random.nextInt(3), 127, i % 3 == 0 ? 1 : 0);
+        assertSameTotals(days, weatherDayStore.packDate(2020, 1, 1), weatherDayStore.packDate(2020, 12, 31));
+        assertSameTotals(days, weatherDayStore.packDate(2020, 3, 1), weatherDayStore.packDate(2020, 9, 31));
+    }
+
+    @Test
+    void summarizeAddsUpTheDaysOfAMonth() {
+        weatherDayStore days = new weatherDayStore();
+        days.add(2020, 7, 1, 80, 40, 1);
+        days.add(2020, 6, 30, 10, 90, 1);
+        days.add(2020, 7, 31, 70, 60, 0);
+        days.add(2020, 8, 1, 20, 10, 1);
+        for (boolean vectorized : new boolean[]{false, true}) {
+            boolean before = weatherAggregator.vectorized();
+            weatherAggregator.setVectorized(vectorized);
+            try {
+                weatherAggregator.columnSummary july = weatherAggregator.summarize(days, YearMonth.of(2020, 7));
+                assertEquals(new weatherAggregator.columnSummary(2, 150, 70, 80, 100, 40, 60, 1), july);
+                assertEquals(75, july.averageTemperature(), 1e-9);
+                assertEquals(0, weatherAggregator.summarize(days, LocalDate.of(2021, 1, 1), LocalDate.of(2021, 12, 31)).days());
+                assertEquals(0, weatherAggregator.summarize(days, LocalDate.of(2020, 8, 1), LocalDate.of(2020, 7, 1)).days());
+            } finally {
+                weatherAggregator.setVectorized(before);
+            }
+        }
+    }
+}
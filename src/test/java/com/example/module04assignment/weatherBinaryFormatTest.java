@@ -0,0 +1,87 @@
+package com.example.module04assignment;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/// Tests that a .wdb file written by weatherBinaryFormat has the same days and totals as its .csv file.
+class weatherBinaryFormatTest {
+    @TempDir
+    Path folder;
+
+    /// Writes a .csv file with days of random dates in random order, some months have no days at all.
+    private Path randomCsv(int rows, long seed) throws IOException {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            text.append(1990 + random.nextInt(30)).append('-').append(1 + random.nextInt(11)).append('-')
+                    .append(1 + random.nextInt(28)).append(',').append(random.nextInt(140) - 30).append(',')
+                    .append(random.nextInt(101)).append(',').append(random.nextInt(2)).append('\n');
+        }
+        Path csv = folder.resolve("weather.csv");
+        Files.writeString(csv, text);
+        return csv;
+    }
+
+    @Test
+    void roundTripKeepsEveryDaySortedByDate() throws IOException {
+        Path csv = randomCsv(20_000, 5);
+        Path binary = folder.resolve("weather" + weatherBinaryFormat.EXTENSION);
+        weatherBinaryFormat.convert(csv, binary);
+
+        weatherDayStore original = weatherDataSet.load(csv).days();
+        weatherDayStore read = weatherDataSet.load(binary).days();
+        assertEquals(original.size(), read.size());
+        // the .wdb file keeps the days of the same date in the order of the .csv file
+        Integer[] order = new Integer[original.size()];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        Arrays.sort(order, (a, b) -> Integer.compare(original.date(a), original.date(b)));
+        for (int i = 0; i < order.length; i++) {
+            int day = order[i];
+            assertEquals(original.date(day), read.date(i), "date of day " + i);
+            assertEquals(original.temperature(day), read.temperature(i), "temperature of day " + i);
+            assertEquals(original.humidity(day), read.humidity(i), "humidity of day " + i);
+            assertEquals(original.rained(day), read.rained(i), "rain of day " + i);
+        }
+    }
+
+    @Test
+    void indexHasTheTotalsOfEveryMonth() throws IOException {
+        Path csv = randomCsv(5_000, 11);
+        Path binary = folder.resolve("weather" + weatherBinaryFormat.EXTENSION);
+        weatherBinaryFormat.convert(csv, binary);
+
+        weatherMonthTable months = weatherDataSet.load(csv).months();
+        weatherBinaryFormat file = weatherBinaryFormat.open(binary);
+        for (int year : months.years()) {
+            for (int month = 1; month <= 12; month++) {
+                weatherBinaryFormat.monthEntry entry = file.summary(year, month);
+                if (months.dayCount(year, month) == 0) {
+                    assertNull(entry, year + "-" + month);
+                    continue;
+                }
+                assertEquals(months.dayCount(year, month), entry.recordCount());
+                assertEquals(months.rainyDays(year, month), entry.rainyDays());
+                assertEquals(months.temperatureSum(year, month), entry.temperatureSum());
+                assertEquals(months.dayCount(year, month), file.readMonth(year, month).size());
+            }
+        }
+        weatherMonthTable index = file.monthTable();
+        weatherMonthTable loaded = weatherDataSet.load(binary).months();
+        for (int year : months.years()) {
+            for (int month = 1; month <= 12; month++) {
+                assertEquals(months.averageTemperature(year, month), index.averageTemperature(year, month), 1e-9);
+                assertEquals(months.temperatureStats(year, month).median(), loaded.temperatureStats(year, month).median());
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.module04assignment;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/// Tests for weatherCsvParser, which rows it accepts and which lines it counts as malformed.
+class weatherCsvParserTest {
+    @TempDir
+    Path folder;
+
+    /// Parses the text with a new parser and returns it, the rows are added to days.
+    private static weatherCsvParser parse(String text, weatherDayStore days) throws IOException {
+        weatherCsvParser parser = new weatherCsvParser();
+        parser.parse(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)), days::add);
+        return parser;
+    }
+
+    @Test
+    void readsTheFieldsOfEveryRow() throws IOException {
+        weatherDayStore days = new weatherDayStore();
+        weatherCsvParser parser = parse("2020-1-31,40,55,1\n2020-12-1,-3,0,0", days);
+        assertEquals(2, parser.rowsParsed());
+        assertEquals(0, parser.malformedLines());
+        assertEquals(weatherDayStore.packDate(2020, 1, 31), days.date(0));
+        assertEquals(40, days.temperature(0));
+        assertEquals(55, days.humidity(0));
+        assertEquals(1, days.rained(0));
+        assertEquals(weatherDayStore.packDate(2020, 12, 1), days.date(1));
+        assertEquals(-3, days.temperature(1));
+        assertEquals(0, days.rained(1));
+    }
+
+    @Test
+    void countsMalformedLinesAndSkipsBlankOnes() throws IOException {
+        String text = """
+                2020-1-1,40,55,0
+                date,temperature,humidity,rain
+
+                2020-13-1,40,55,0
+                2020-1-32,40,55,0
+                2020-1-1,40,55,2
+                2020-1-1,40,200,0
+                2020-1-1,40,55
+                2020-1-1,4a,55,0
+                   \t
+                2020-1-2,41,56,1
+                """;
+        weatherDayStore days = new weatherDayStore();
+        weatherCsvParser parser = parse(text, days);
+        assertEquals(2, parser.rowsParsed());
+        assertEquals(7, parser.malformedLines());
+        assertEquals(2, days.size());
+    }
+
+    @Test
+    void readsLinesThatEndWithCarriageReturns() throws IOException {
+        weatherDayStore days = new weatherDayStore();
+        weatherCsvParser parser = parse("2020-1-1,40,55,0\r\n2020-1-2,41,56,1\r\n\r\n2020-1-3,42,57,1\r\n", days);
+        assertEquals(3, parser.rowsParsed());
+        assertEquals(0, parser.malformedLines());
+        assertEquals(1, days.rained(1));
+        assertEquals(57, days.humidity(2));
+    }
+
+    @Test
+    void countsYearsOutsideOfTheStoreAsMalformed() throws IOException {
+        String text = """
+                0-1-1,40,55,0
+                10000-1-1,40,55,0
+                99999999-1-1,40,55,0
+                2147483647-1-1,40,55,0
+                1-1-1,40,55,0
+                9999-12-31,40,55,0
+                """;
+        weatherDayStore days = new weatherDayStore();
+        weatherCsvParser parser = parse(text, days);
+        assertEquals(2, parser.rowsParsed());
+        assertEquals(4, parser.malformedLines());
+        assertEquals(1, days.year(0));
+        assertEquals(9999, days.year(1));
+    }
+
+    @Test
+    void lastLineWithoutNewLineIsOnlyUsedIfItIsWhole() {
+        ByteBuffer whole = ByteBuffer.wrap("2020-1-3,45,50,1".getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer half = ByteBuffer.wrap("2020-1-3,4".getBytes(StandardCharsets.US_ASCII));
+        weatherDayStore days = new weatherDayStore();
+        weatherCsvParser parser = new weatherCsvParser();
+        assertTrue(parser.parseLastLine(whole, 0, whole.limit(), days::add));
+        assertFalse(parser.parseLastLine(half, 0, half.limit(), days::add));
+        assertEquals(1, parser.rowsParsed());
+        assertEquals(0, parser.malformedLines());
+        assertEquals(45, days.temperature(0));
+    }
+
+    @Test
+    void loaderAddsUpTheMalformedLinesOfEveryChunk() throws IOException {
+        Path file = folder.resolve("weather.csv");
+        Files.writeString(file, "2020-1-1,40,55,0\r\n12020-1-1,40,55,0\r\n2020-1-2,41,56,1\r\nbroken\r\n");
+        weatherDataSet data = weatherDataSet.load(file);
+        assertEquals(2, data.days().size());
+        assertEquals(2, data.malformedLines());
+        assertEquals(2, data.months().dayCount(2020, 1));
+    }
+
+    @Test
+    void loadingTheSameFileTwiceDoesNotAddUpTheCounters() throws IOException {
+        Path file = folder.resolve("weather.csv");
+        Files.writeString(file, "2020-1-1,40,55,0\nbroken\n2020-1-2,41,56,1\n");
+        weatherFileLoader loader = new weatherFileLoader(file);
+        loader.load();
+        weatherDataSet again = loader.load();
+        assertEquals(2, loader.rowsParsed());
+        assertEquals(1, loader.malformedLines());
+        assertEquals(Files.size(file), loader.bytesRead());
+        assertEquals(Files.size(file), again.bytesRead());
+        assertEquals(1, again.malformedLines());
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.module04assignment;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/// Tests that the rain bits of weatherDayStore stay with their days when stores are put together.
+class weatherDayStoreTest {
+    /// Returns a store of random days, and the rain of every day in the array rain.
+    private static weatherDayStore randomStore(Random random, int size, int[] rain) {
+        weatherDayStore days = new weatherDayStore(1);
+        for (int i = 0; i < size; i++) {
+            rain[i] = random.nextInt(2);
+            days.add(2020, 1 + random.nextInt(12), 1 + random.nextInt(28), random.nextInt(100), random.nextInt(100), rain[i]);
+        }
+        return days;
+    }
+
+    private static void assertRain(List<Integer> expected, weatherDayStore days) {
+        assertEquals(expected.size(), days.size());
+        int rainy = 0;
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), days.rained(i), "rain of day " + i);
+            rainy += expected.get(i);
+        }
+        assertEquals(rainy, days.rainyDays(0, days.size()));
+    }
+
+    @Test
+    void addAllShiftsTheRainBitsOfTheOtherStore() {
+        Random random = new Random(64);
+        // sizes around the 64 days of a word, so every shift of the words is used
+        int[] sizes = {0, 1, 5, 63, 64, 65, 127, 128, 129, 200};
+        for (int first : sizes) {
+            for (int second : sizes) {
+                int[] rain = new int[Math.max(first, second)];
+                List<Integer> expected = new ArrayList<>();
+                weatherDayStore days = randomStore(random, first, rain);
+                for (int i = 0; i < first; i++)
+                    expected.add(rain[i]);
+                weatherDayStore other = randomStore(random, second, rain);
+                for (int i = 0; i < second; i++)
+                    expected.add(rain[i]);
+                days.addAll(other);
+                assertRain(expected, days);
+            }
+        }
+    }
+
+    @Test
+    void allRainyStoresKeepEveryBit() {
+        weatherDayStore days = new weatherDayStore(1);
+        List<Integer> expected = new ArrayList<>();
+        for (int part = 0; part < 5; part++) {
+            weatherDayStore other = new weatherDayStore(1);
+            for (int i = 0; i < 61 + part; i++) {
+                other.add(2020, 1, 1, 50, 50, 1);
+                expected.add(1);
+            }
+            days.addAll(other);
+        }
+        days.add(2020, 1, 2, 50, 50, 0);
+        expected.add(0);
+        assertRain(expected, days);
+    }
+
+    @Test
+    void rainyDaysCountsAnyRange() {
+        Random random = new Random(65);
+        int[] rain = new int[300];
+        weatherDayStore days = randomStore(random, rain.length, rain);
+        for (int from = 0; from <= rain.length; from += 7) {
+            for (int to = from; to <= rain.length; to += 11) {
+                int expected = 0;
+                for (int i = from; i < to; i++)
+                    expected += rain[i];
+                assertEquals(expected, days.rainyDays(from, to), from + " to " + to);
+            }
+        }
+    }
+
+    @Test
+    void joinKeepsEveryDayInOrderAndEmptiesTheParts() {
+        Random random = new Random(66);
+        List<weatherDayStore> parts = new ArrayList<>();
+        weatherDayStore expected = new weatherDayStore(1);
+        for (int size : new int[]{65, 0, 1, 64, 130, 63}) {
+            weatherDayStore part = randomStore(random, size, new int[size]);
+            expected.addAll(part);
+            parts.add(part);
+        }
+        weatherDayStore joined = weatherDayStore.join(parts);
+        assertEquals(expected.size(), joined.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.date(i), joined.date(i));
+            assertEquals(expected.temperature(i), joined.temperature(i));
+            assertEquals(expected.humidity(i), joined.humidity(i));
+            assertEquals(expected.rained(i), joined.rained(i));
+        }
+        assertEquals(expected.rainyDays(0, expected.size()), joined.rainyDays(0, joined.size()));
+        for (weatherDayStore part : parts)
+            assertEquals(0, part.size());
+    }
+
+    @Test
+    void capacityDoublesButStopsAtMaxSize() {
+        assertEquals(2, weatherDayStore.newCapacity(1, 2));
+        assertEquals(2048, weatherDayStore.newCapacity(1024, 1025));
+        assertEquals(5000, weatherDayStore.newCapacity(1024, 5000));
+        // size * 2 would be a negative int here
+        int half = Integer.MAX_VALUE / 2 + 1;
+        assertEquals(weatherDayStore.MAX_SIZE, weatherDayStore.newCapacity(half, half + 1L));
+        assertEquals(weatherDayStore.MAX_SIZE, weatherDayStore.newCapacity(weatherDayStore.MAX_SIZE - 1, weatherDayStore.MAX_SIZE));
+        assertThrows(IllegalArgumentException.class,
+                () -> weatherDayStore.newCapacity(weatherDayStore.MAX_SIZE, weatherDayStore.MAX_SIZE + 1L));
+    }
+}
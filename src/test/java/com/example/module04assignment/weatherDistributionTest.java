@@ -0,0 +1,97 @@
+package com.example.module04assignment;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/// Tests weatherDistribution against the statistics of the same values kept in a sorted array.
+class weatherDistributionTest {
+    private static final double[] FRACTIONS = {0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 1};
+
+    /// Returns the nearest rank percentile of sorted values, which is how weatherDistribution defines it.
+    private static int percentile(int[] sorted, double fraction) {
+        int rank = Math.max(1, (int) Math.ceil(fraction * sorted.length));
+        return sorted[rank - 1];
+    }
+
+    private static void assertMatches(int[] values, weatherDistribution distribution) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        double mean = 0;
+        for (int value : sorted)
+            mean += value;
+        mean /= sorted.length;
+        double squares = 0;
+        for (int value : sorted)
+            squares += (value - mean) * (value - mean);
+        assertEquals(sorted.length, distribution.count());
+        assertEquals(sorted[0], distribution.min());
+        assertEquals(sorted[sorted.length - 1], distribution.max());
+        assertEquals(mean, distribution.mean(), 1e-9);
+        assertEquals(Math.sqrt(squares / sorted.length), distribution.standardDeviation(), 1e-9);
+        for (double fraction : FRACTIONS)
+            assertEquals(percentile(sorted, fraction), distribution.percentile(fraction), "p" + fraction * 100);
+        assertEquals(percentile(sorted, 0.5), distribution.median());
+    }
+
+    @Test
+    void matchesSortedValues() {
+        Random random = new Random(16);
+        for (int size : new int[]{1, 2, 3, 31, 1000, 100_000}) {
+            int[] values = new int[size];
+            weatherDistribution distribution = new weatherDistribution(-100, 160);
+            for (int i = 0; i < size; i++) {
+                values[i] = random.nextInt(261) - 100;
+                distribution.add(values[i]);
+            }
+            assertMatches(values, distribution);
+        }
+    }
+
+    @Test
+    void mergedDistributionsMatchTheValuesTogether() {
+        Random random = new Random(17);
+        int[] values = new int[10_000];
+        weatherDistribution[] parts = new weatherDistribution[7];
+        for (int i = 0; i < parts.length; i++)
+            parts[i] = new weatherDistribution(-100, 160);
+        for (int i = 0; i < values.length; i++) {
+            // the parts have different means, so merging them has to move the mean a lot
+            int part = random.nextInt(parts.length);
+            values[i] = Math.clamp(part * 30 - 90 + (int) (random.nextGaussian() * 10), -100, 160);
+            parts[part].add(values[i]);
+        }
+        weatherDistribution merged = new weatherDistribution(-100, 160);
+        for (weatherDistribution part : parts)
+            merged.merge(part);
+        merged.merge(new weatherDistribution(-100, 160));
+        assertMatches(values, merged);
+    }
+
+    @Test
+    void valuesOutsideOfTheHistogramKeepExactMinimumAndMaximum() {
+        weatherDistribution distribution = new weatherDistribution(0, 10);
+        for (int value : new int[]{-50, 5, 5, 5, 80})
+            distribution.add(value);
+        assertEquals(-50, distribution.min());
+        assertEquals(80, distribution.max());
+        assertEquals(5, distribution.median());
+        // their percentiles are rounded to the edges of the histogram
+        assertEquals(0, distribution.percentile(0.01));
+        assertEquals(10, distribution.percentile(1));
+        assertEquals(9, distribution.mean(), 1e-9);
+    }
+
+    @Test
+    void emptyDistributionHasNoMean() {
+        weatherDistribution distribution = new weatherDistribution(0, 10);
+        assertEquals(0, distribution.count());
+        assertTrue(Double.isNaN(distribution.mean()));
+        assertTrue(Double.isNaN(distribution.standardDeviation()));
+        assertEquals(0, distribution.median());
+    }
+}
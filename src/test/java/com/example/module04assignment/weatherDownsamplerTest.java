@@ -0,0 +1,67 @@
+package com.example.module04assignment;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/// Tests the points weatherDownsampler keeps out of a series.
+class weatherDownsamplerTest {
+    private static double[] indexes(int count) {
+        double[] x = new double[count];
+        for (int i = 0; i < count; i++)
+            x[i] = i;
+        return x;
+    }
+
+    @Test
+    void keepsEveryPointOfAShortSeries() {
+        double[] x = indexes(10);
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, weatherDownsampler.largestTriangleThreeBuckets(x, x, 10, 10));
+        assertArrayEquals(new int[]{0, 1, 2}, weatherDownsampler.largestTriangleThreeBuckets(x, x, 3, 50));
+    }
+
+    @Test
+    void keepsTheThresholdInOrderWithBothEnds() {
+        Random random = new Random(18);
+        int count = 10_000;
+        double[] x = indexes(count);
+        double[] y = new double[count];
+        for (int i = 0; i < count; i++)
+            y[i] = random.nextGaussian() * 20 + 60;
+        for (int threshold : new int[]{3, 4, 100, 777, 9_999}) {
+            int[] kept = weatherDownsampler.largestTriangleThreeBuckets(x, y, count, threshold);
+            assertEquals(threshold, kept.length);
+            assertEquals(0, kept[0]);
+            assertEquals(count - 1, kept[threshold - 1]);
+            for (int i = 1; i < kept.length; i++)
+                assertTrue(kept[i] > kept[i - 1], "indexes must be increasing at " + i);
+        }
+    }
+
+    @Test
+    void keepsPeaksAndDips() {
+        int count = 5_000;
+        double[] x = indexes(count);
+        double[] y = new double[count];
+        Arrays.fill(y, 50);
+        y[1234] = 110;
+        y[3210] = -20;
+        int[] kept = weatherDownsampler.largestTriangleThreeBuckets(x, y, count, 50);
+        assertTrue(Arrays.stream(kept).anyMatch(i -> i == 1234), "the peak is kept");
+        assertTrue(Arrays.stream(kept).anyMatch(i -> i == 3210), "the dip is kept");
+    }
+
+    @Test
+    void onlyLooksAtTheFirstCountPoints() {
+        double[] x = indexes(1000);
+        double[] y = new double[1000];
+        y[900] = 1000;
+        int[] kept = weatherDownsampler.largestTriangleThreeBuckets(x, y, 500, 20);
+        assertEquals(499, kept[kept.length - 1]);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.module04assignment;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/// Tests that a file loaded while a row was being written is finished by its weatherFileWatcher.
+class weatherFileWatcherTest {
+    @TempDir
+    Path folder;
+
+    @Test
+    void unfinishedLastRowIsLeftForTheWatcher() throws IOException, InterruptedException {
+        Path file = folder.resolve("live.csv");
+        String loaded = "2020-1-1,40,50,0\n2020-1-2,41,51,1\n";
+        Files.writeString(file, loaded + "2020-1-3,4");
+        weatherDataSet data = weatherDataSet.load(file);
+        assertEquals(2, data.days().size());
+        assertEquals(0, data.malformedLines());
+        assertEquals(loaded.length(), data.bytesRead());
+
+        Files.writeString(file, "5,52,1\n2020-1-4,46,53,0\n", StandardOpenOption.APPEND);
+        BlockingQueue<weatherDayStore> appended = new ArrayBlockingQueue<>(4);
+        try (weatherFileWatcher watcher = new weatherFileWatcher(file, data.bytesRead(), new weatherFileWatcher.appendListener() {
+            @Override
+            public void appended(weatherDayStore days) {
+                appended.add(days);
+            }
+            @Override
+            public void replaced() {
+            }
+        })) {
+            // the watcher reads what was appended since the load as soon as it starts
+            watcher.start();
+            weatherDayStore days = appended.poll(10, TimeUnit.SECONDS);
+            assertNotNull(days);
+            assertEquals(2, days.size());
+            assertEquals(weatherDayStore.packDate(2020, 1, 3), days.date(0));
+            assertEquals(45, days.temperature(0));
+            assertEquals(46, days.temperature(1));
+            assertEquals(Files.size(file), watcher.offset());
+        }
+    }
+
+    @Test
+    void wholeLastRowWithoutNewLineIsLoaded() throws IOException {
+        Path file = folder.resolve("done.csv");
+        Files.writeString(file, "2020-1-1,40,50,0\n2020-1-2,41,51,1");
+        weatherDataSet data = weatherDataSet.load(file);
+        assertEquals(2, data.days().size());
+        assertEquals(Files.size(file), data.bytesRead());
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.module04assignment;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/// Tests that a .csv.gz file loads with the same days as the .csv file it was compressed from.
+class weatherGzipLoaderTest {
+    @TempDir
+    Path folder;
+
+    /// Writes the same random rows to a .csv file and a .csv.gz file and returns the .csv file.
+    private Path writeBoth(int rows, long seed) throws IOException {
+        Random random = new Random(seed);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            text.append(1950 + random.nextInt(70)).append('-').append(1 + random.nextInt(12)).append('-')
+                    .append(1 + random.nextInt(28)).append(',').append(random.nextInt(140) - 30).append(',')
+                    .append(random.nextInt(101)).append(',').append(random.nextInt(2)).append('\n');
+            if (i % 1000 == 0)
+                text.append("broken row\n");
+        }
+        Path csv = folder.resolve("weather.csv");
+        Files.writeString(csv, text);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(folder.resolve("weather.csv.gz")))) {
+            out.write(text.toString().getBytes(StandardCharsets.US_ASCII));
+        }
+        return csv;
+    }
+
+    private static void assertSameDays(weatherDataSet expected, weatherDataSet actual) {
+        assertEquals(expected.malformedLines(), actual.malformedLines());
+        assertEquals(expected.days().size(), actual.days().size());
+        for (int i = 0; i < expected.days().size(); i++) {
+            assertEquals(expected.days().date(i), actual.days().date(i), "date of day " + i);
+            assertEquals(expected.days().temperature(i), actual.days().temperature(i), "temperature of day " + i);
+            assertEquals(expected.days().humidity(i), actual.days().humidity(i), "humidity of day " + i);
+            assertEquals(expected.days().rained(i), actual.days().rained(i), "rain of day " + i);
+        }
+    }
+
+    @Test
+    void roundTripWithAListenerReportsTheCompressedBytes() throws IOException {
+        // enough rows for more than one decompressed buffer, so rows are cut between buffers
+        Path csv = writeBoth(200_000, 19);
+        Path gzip = folder.resolve("weather.csv.gz");
+        long size = Files.size(gzip);
+        List<Long> progress = new ArrayList<>();
+        weatherDataSet data = new weatherGzipLoader(gzip).load(new weatherFileLoader.progressListener() {
+            @Override
+            public void chunkLoaded(long bytesRead, long totalBytes, long rowsParsed, weatherMonthTable partial) {
+                assertEquals(size, totalBytes);
+                progress.add(bytesRead);
+            }
+        });
+        assertSameDays(weatherDataSet.load(csv), data);
+        assertEquals(size, data.bytesRead());
+        assertTrue(progress.size() > 1, "progress after every buffer");
+        for (int i = 0; i < progress.size(); i++) {
+            assertTrue(progress.get(i) > 0 && progress.get(i) <= size, "progress " + progress.get(i));
+            assertTrue(i == 0 || progress.get(i) >= progress.get(i - 1), "progress goes forward");
+        }
+    }
+
+    @Test
+    void smallFileLoadsWithAListener() throws IOException {
+        // a file this small is decompressed and closed before the first batch reaches the listener
+        Path csv = writeBoth(28, 20);
+        Path gzip = folder.resolve("weather.csv.gz");
+        for (int run = 0; run < 3; run++) {
+            List<Long> progress = new ArrayList<>();
+            weatherDataSet data = weatherDataSet.load(gzip, (bytesRead, totalBytes, rowsParsed, partial) -> progress.add(bytesRead));
+            assertSameDays(weatherDataSet.load(csv), data);
+            assertEquals(1, progress.size());
+        }
+    }
+
+    @Test
+    void summaryOnlyLoadHasTheSameMonths() throws IOException {
+        Path csv = writeBoth(5_000, 21);
+        weatherDataSet full = weatherDataSet.load(csv);
+        weatherDataSet summary = new weatherGzipLoader(folder.resolve("weather.csv.gz"), false).load();
+        assertEquals(0, summary.days().size());
+        for (int year : full.months().years()) {
+            for (int month = 1; month <= 12; month++) {
+                assertEquals(full.months().dayCount(year, month), summary.months().dayCount(year, month));
+                assertEquals(full.months().temperatureSum(year, month), summary.months().temperatureSum(year, month));
+                assertEquals(full.months().rainyDays(year, month), summary.months().rainyDays(year, month));
+            }
+        }
+    }
+}
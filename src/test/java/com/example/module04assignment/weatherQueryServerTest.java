@@ -0,0 +1,115 @@
+package com.example.module04assignment;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/// Tests the endpoints of weatherQueryServer on a free port of this computer.
+class weatherQueryServerTest {
+    @TempDir
+    Path folder;
+    private weatherQueryServer server;
+
+    /// record for the status and body of an answer
+    private record answer(int status, String body) {}
+
+    @BeforeEach
+    void startServer() throws IOException {
+        Files.writeString(folder.resolve("station-1.csv"), "2020-7-1,80,40,1\n2020-7-2,70,60,0\n2020-8-1,60,50,1\n");
+        Files.writeString(folder.resolve("station-2.csv"), "2020-7-1,90,30,0\n");
+        server = new weatherQueryServer(folder, 0, 16);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    private answer request(String method, String target) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create("http://localhost:" + server.port() + target).toURL().openConnection();
+        connection.setRequestMethod(method);
+        int status = connection.getResponseCode();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            return new answer(status, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private answer get(String target) throws IOException {
+        return request("GET", target);
+    }
+
+    @Test
+    void monthOfAllStationsAndOfOne() throws IOException {
+        answer july = get("/month?year=2020&month=7");
+        assertEquals(200, july.status());
+        assertTrue(july.body().contains("\"days\": 3, \"averageTemperature\": 80.000"), july.body());
+        assertTrue(july.body().contains("\"rainyDays\": 1"), july.body());
+        answer one = get("/month?year=2020&month=7&station=station-2.csv");
+        assertTrue(one.body().contains("\"days\": 1, \"averageTemperature\": 90.000"), one.body());
+    }
+
+    @Test
+    void emptyMonthAndRangeHaveNullAverages() throws IOException {
+        assertTrue(get("/month?year=1999&month=7").body().contains("\"averageTemperature\": null, \"status\": null"));
+        answer range = get("/range?from=1999-01-01&to=1999-12-31");
+        assertTrue(range.body().contains("\"days\": 0, \"averageTemperature\": null, \"averageHumidity\": null"), range.body());
+    }
+
+    @Test
+    void rangeAddsUpEveryStation() throws IOException {
+        answer range = get("/range?from=2020-07-01&to=2020-07-31");
+        assertEquals(200, range.status());
+        assertTrue(range.body().contains("\"days\": 3, \"averageTemperature\": 80.000, \"averageHumidity\": 43.333, \"rainyDays\": 1"),
+                range.body());
+    }
+
+    @Test
+    void stationsListsEveryStationWithItsMonth() throws IOException {
+        answer stations = get("/stations?year=2020&month=8");
+        assertTrue(stations.body().startsWith("[{\"station\": \"station-1.csv\""), stations.body());
+        assertTrue(stations.body().contains("\"station\": \"station-2.csv\", \"year\": 2020, \"month\": \"August\", \"days\": 0"),
+                stations.body());
+    }
+
+    @Test
+    void wrongRequestsAreRefused() throws IOException {
+        assertEquals(400, get("/month?year=2020&month=13").status());
+        assertEquals(400, get("/stations?year=2020&month=13").status());
+        assertEquals(400, get("/month?year=2020").status());
+        assertEquals(400, get("/range?from=2020-02-01&to=2020-01-01").status());
+        assertEquals(404, get("/month?year=2020&month=7&station=missing.csv").status());
+        assertEquals(405, request("POST", "/month?year=2020&month=7").status());
+    }
+
+    @Test
+    void appendedRowsInvalidateTheCachedAnswers() throws IOException, InterruptedException {
+        String before = get("/month?year=2020&month=8").body();
+        // the second answer comes from the cache
+        assertEquals(before, get("/month?year=2020&month=8").body());
+        assertTrue(before.contains("\"days\": 1,"), before);
+
+        Files.writeString(folder.resolve("station-1.csv"), "2020-8-2,70,40,0\n", StandardOpenOption.APPEND);
+        String after = before;
+        for (int tries = 0; tries < 100 && after.equals(before); tries++) {
+            Thread.sleep(100);
+            after = get("/month?year=2020&month=8").body();
+        }
+        assertTrue(after.contains("\"days\": 2, \"averageTemperature\": 65.000"), after);
+        answer range = get("/range?from=2020-08-01&to=2020-08-31");
+        assertTrue(range.body().contains("\"days\": 2,"), range.body());
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.module04assignment;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/// Tests the least recently used answers and the generations of weatherResponseCache.
+class weatherResponseCacheTest {
+    private static final byte[] ANSWER = {1, 2, 3};
+
+    @Test
+    void forgetsTheLeastRecentlyUsedAnswer() {
+        weatherResponseCache cache = new weatherResponseCache(2);
+        cache.put("/a", ANSWER, cache.generation());
+        cache.put("/b", ANSWER, cache.generation());
+        // using /a makes /b the oldest
+        assertArrayEquals(ANSWER, cache.get("/a"));
+        cache.put("/c", ANSWER, cache.generation());
+        assertEquals(2, cache.size());
+        assertNull(cache.get("/b"));
+        assertArrayEquals(ANSWER, cache.get("/a"));
+        assertArrayEquals(ANSWER, cache.get("/c"));
+    }
+
+    @Test
+    void invalidateDropsEveryAnswerAndAnswersMadeBefore() {
+        weatherResponseCache cache = new weatherResponseCache(8);
+        long generation = cache.generation();
+        cache.put("/a", ANSWER, generation);
+        cache.invalidate();
+        assertNull(cache.get("/a"));
+        // an answer made from the old data while the data changed is not kept
+        cache.put("/b", ANSWER, generation);
+        assertNull(cache.get("/b"));
+        cache.put("/b", ANSWER, cache.generation());
+        assertArrayEquals(ANSWER, cache.get("/b"));
+    }
+}